@@ -0,0 +1,7 @@
+package exceptions;
+
+public class BadRequestException extends IllegalArgumentException {
+    public BadRequestException(String message) {
+        super(message);
+    }
+}
@@ -2,11 +2,16 @@ package http;
 
 import com.sun.net.httpserver.HttpServer;
 import http.handler.*;
+import service.ConcurrentTaskManager;
 import service.Managers;
 import service.TaskManager;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class HttpTaskServer {
     public static final int PORT = 8080;
@@ -21,6 +26,14 @@ public class HttpTaskServer {
         server.createContext("/epics", new EpicHandler(taskManager));
         server.createContext("/history", new HistoryHandler(taskManager));
         server.createContext("/prioritized", new PrioritizedHandler(taskManager));
+        server.createContext("/search", new SearchHandler(taskManager));
+        server.createContext("/stats", new StatsHandler(taskManager));
+    }
+
+    // Многопоточная обработка запросов; менеджер должен быть потокобезопасным (см. Managers.getConcurrent)
+    public HttpTaskServer(TaskManager taskManager, Executor executor) throws IOException {
+        this(taskManager);
+        server.setExecutor(executor);
     }
 
     public void start() {
@@ -32,8 +45,10 @@ public class HttpTaskServer {
     }
 
     public static void main(String[] args) throws IOException {
-        TaskManager manager = Managers.getDefault();
-        HttpTaskServer httpTaskServer = new HttpTaskServer(manager);
+        TaskManager manager = new ConcurrentTaskManager(
+                Managers.getAsyncHistory(Managers.getSessionHistory(100, 10_000, Duration.ofHours(1))));
+        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        HttpTaskServer httpTaskServer = new HttpTaskServer(manager, executor);
         httpTaskServer.start();
     }
 }
@@ -6,17 +6,26 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
+import exceptions.BadRequestException;
 import exceptions.NotFoundException;
 import exceptions.TaskOverlapException;
+import model.TaskStatus;
+import service.SessionContext;
 import service.TaskManager;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 public abstract class BaseHttpHandler implements HttpHandler {
+    public static final String SESSION_HEADER = "X-Session-Id";
     protected final TaskManager taskManager;
 
     public BaseHttpHandler(TaskManager taskManager) {
@@ -39,6 +48,8 @@ public abstract class BaseHttpHandler implements HttpHandler {
 
     @Override
     public void handle(HttpExchange exchange) throws IOException {
+        // История просмотров ведётся в сессии клиента, если он её указал
+        SessionContext.bind(exchange.getRequestHeaders().getFirst(SESSION_HEADER));
         try {
             String method = exchange.getRequestMethod();
             String path = exchange.getRequestURI().getPath();
@@ -62,6 +73,8 @@ public abstract class BaseHttpHandler implements HttpHandler {
             }
         } catch (Exception e) {
             handleException(exchange, e);
+        } finally {
+            SessionContext.unbind();
         }
     }
 
@@ -88,9 +101,18 @@ public abstract class BaseHttpHandler implements HttpHandler {
         if (e instanceof NotFoundException) {
             statusCode = 404;
             message = e.getMessage();
+        } else if (e instanceof BadRequestException) {
+            statusCode = 400;
+            message = e.getMessage();
         } else if (e instanceof TaskOverlapException) {
             statusCode = 406;
             message = e.getMessage();
+        } else if (e instanceof NumberFormatException) {
+            statusCode = 400;
+            message = "Invalid number: " + e.getMessage();
+        } else if (e instanceof DateTimeParseException) {
+            statusCode = 400;
+            message = "Invalid date: " + ((DateTimeParseException) e).getParsedString();
         } else {
             statusCode = 500;
             message = "Internal Server Error: " + e.getMessage();
@@ -112,6 +134,76 @@ public abstract class BaseHttpHandler implements HttpHandler {
         return gson;
     }
 
+    protected Map<String, String> getQueryParams(HttpExchange exchange) {
+        Map<String, String> params = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null || query.isEmpty()) {
+            return params;
+        }
+        for (String pair : query.split("&")) {
+            int separator = pair.indexOf('=');
+            String name = separator >= 0 ? pair.substring(0, separator) : pair;
+            String value = separator >= 0 ? pair.substring(separator + 1) : "";
+            params.put(decodeQueryPart(name), decodeQueryPart(value));
+        }
+        return params;
+    }
+
+    // Неверная %-последовательность - ошибка клиента, а не сервера
+    private static String decodeQueryPart(String part) {
+        try {
+            return URLDecoder.decode(part, StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Malformed query parameter: " + part);
+        }
+    }
+
+    protected int getIntParam(Map<String, String> params, String name, int defaultValue) {
+        String value = params.get(name);
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        int parsed = Integer.parseInt(value);
+        if (parsed < 0) {
+            throw new NumberFormatException(name + " must not be negative");
+        }
+        return parsed;
+    }
+
+    // Время в формате ISO (2025-03-01T10:00), null если параметр не задан
+    protected LocalDateTime getTimeParam(Map<String, String> params, String name) {
+        String value = params.get(name);
+        return value == null || value.isEmpty() ? null : LocalDateTime.parse(value);
+    }
+
+    // Статус из ?status=, null если фильтр не задан
+    protected TaskStatus getStatusParam(Map<String, String> params) {
+        String value = params.get("status");
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        try {
+            return TaskStatus.valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Unknown status: " + value);
+        }
+    }
+
+    // Страница отфильтрованного списка, если заданы offset или limit
+    protected <T> List<T> applyPage(List<T> items, Map<String, String> params) {
+        if (!isPageRequest(params)) {
+            return items;
+        }
+        int from = Math.min(getIntParam(params, "offset", 0), items.size());
+        int to = (int) Math.min((long) from + getIntParam(params, "limit", Integer.MAX_VALUE), items.size());
+        return items.subList(from, to);
+    }
+
+    // Запрошена ли страница списка (?offset=&limit=)
+    protected boolean isPageRequest(Map<String, String> params) {
+        return params.containsKey("offset") || params.containsKey("limit");
+    }
+
     protected int extractTaskId(String path) {
         // Проверяем, соответствует ли путь ожидаемому формату
         if (path.matches("^/tasks/\\d+$")) {
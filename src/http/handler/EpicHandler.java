@@ -2,6 +2,7 @@ package http.handler;
 
 import com.sun.net.httpserver.HttpExchange;
 import model.Epic;
+import model.TaskStatus;
 import service.TaskManager;
 
 import java.io.IOException;
@@ -10,6 +11,7 @@ import exceptions.NotFoundException;
 import model.Subtask;
 
 import java.util.List;
+import java.util.Map;
 
 import static java.nio.charset.StandardCharsets.*;
 
@@ -22,7 +24,16 @@ public class EpicHandler extends BaseHttpHandler {
     @Override
     protected void processGet(HttpExchange exchange, String path) throws IOException {
         if (path.equals("/epics")) {
-            List<Epic> epics = taskManager.getAllEpics();
+            Map<String, String> params = getQueryParams(exchange);
+            TaskStatus status = getStatusParam(params);
+            List<Epic> epics;
+            if (status != null) {
+                epics = applyPage(taskManager.getEpicsByStatus(status), params);
+            } else {
+                epics = isPageRequest(params)
+                        ? taskManager.getEpics(getIntParam(params, "offset", 0), getIntParam(params, "limit", Integer.MAX_VALUE))
+                        : taskManager.getAllEpics();
+            }
             sendJson(exchange, gson().toJson(epics), 200);
         } else if (path.matches("^/epics/\\d+$")) {
             try {
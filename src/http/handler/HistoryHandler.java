@@ -15,7 +15,7 @@ public class HistoryHandler extends BaseHttpHandler {
 
     @Override
     protected void processGet(HttpExchange exchange, String path) throws IOException {
-        List<Task> tasksInHistoryList = taskManager.getAllTasks();
+        List<Task> tasksInHistoryList = taskManager.getHistory();
         sendJson(exchange, gson().toJson(tasksInHistoryList), 200);
     }
 }
@@ -5,7 +5,9 @@ import model.Task;
 import service.TaskManager;
 
 import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 public class PrioritizedHandler extends BaseHttpHandler {
     private final TaskManager taskManager;
@@ -17,7 +19,22 @@ public class PrioritizedHandler extends BaseHttpHandler {
 
     @Override
     protected void processGet(HttpExchange exchange, String path) throws IOException {
-        List<Task> prioritizedTasks = taskManager.getPrioritizedTasks();
+        Map<String, String> params = getQueryParams(exchange);
+        LocalDateTime from = getTimeParam(params, "from");
+        LocalDateTime to = getTimeParam(params, "to");
+        int limit = getIntParam(params, "limit", Integer.MAX_VALUE);
+        List<Task> prioritizedTasks;
+        if (from != null && to != null) {
+            prioritizedTasks = taskManager.getPrioritizedTasks(from, to, limit);
+        } else if (from != null) {
+            prioritizedTasks = taskManager.getTasksStartingFrom(from, limit);
+        } else if (to != null) {
+            prioritizedTasks = taskManager.getTasksStartingBefore(to, limit);
+        } else if (isPageRequest(params)) {
+            prioritizedTasks = taskManager.getPrioritizedTasks(getIntParam(params, "offset", 0), limit);
+        } else {
+            prioritizedTasks = taskManager.getPrioritizedTasks();
+        }
         sendJson(exchange, gson().toJson(prioritizedTasks), 200);
     }
 }
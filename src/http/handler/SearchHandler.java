@@ -0,0 +1,29 @@
+package http.handler;
+
+import com.sun.net.httpserver.HttpExchange;
+import exceptions.BadRequestException;
+import model.Task;
+import service.TaskManager;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+public class SearchHandler extends BaseHttpHandler {
+    private static final int DEFAULT_LIMIT = 20;
+
+    public SearchHandler(TaskManager taskManager) {
+        super(taskManager);
+    }
+
+    @Override
+    protected void processGet(HttpExchange exchange, String path) throws IOException {
+        Map<String, String> params = getQueryParams(exchange);
+        String query = params.get("q");
+        if (query == null || query.isBlank()) {
+            throw new BadRequestException("Query parameter q is required");
+        }
+        List<Task> found = taskManager.search(query, getIntParam(params, "limit", DEFAULT_LIMIT));
+        sendJson(exchange, gson().toJson(found), 200);
+    }
+}
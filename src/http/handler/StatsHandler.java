@@ -0,0 +1,28 @@
+package http.handler;
+
+import com.sun.net.httpserver.HttpExchange;
+import exceptions.NotFoundException;
+import model.ViewCount;
+import service.TaskManager;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+public class StatsHandler extends BaseHttpHandler {
+    private static final int DEFAULT_LIMIT = 10;
+
+    public StatsHandler(TaskManager taskManager) {
+        super(taskManager);
+    }
+
+    @Override
+    protected void processGet(HttpExchange exchange, String path) throws IOException {
+        if (!path.equals("/stats/hot")) {
+            throw new NotFoundException("Invalid request");
+        }
+        Map<String, String> params = getQueryParams(exchange);
+        List<ViewCount> hot = taskManager.getHotTasks(getIntParam(params, "limit", DEFAULT_LIMIT));
+        sendJson(exchange, gson().toJson(hot), 200);
+    }
+}
@@ -3,11 +3,13 @@ package http.handler;
 import com.google.gson.JsonObject;
 import com.sun.net.httpserver.HttpExchange;
 import model.Subtask;
+import model.TaskStatus;
 import service.TaskManager;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
 
 public class SubtaskHandler extends BaseHttpHandler {
 
@@ -48,7 +50,16 @@ public class SubtaskHandler extends BaseHttpHandler {
             // Возвращаем подзадачу
             sendJson(exchange, gson().toJson(subtask), 200);
         } else if (path.equals("/subtasks")) {
-            List<Subtask> subtasks = taskManager.getAllSubtasks();
+            Map<String, String> params = getQueryParams(exchange);
+            TaskStatus status = getStatusParam(params);
+            List<Subtask> subtasks;
+            if (status != null) {
+                subtasks = applyPage(taskManager.getSubtasksByStatus(status), params);
+            } else {
+                subtasks = isPageRequest(params)
+                        ? taskManager.getSubtasks(getIntParam(params, "offset", 0), getIntParam(params, "limit", Integer.MAX_VALUE))
+                        : taskManager.getAllSubtasks();
+            }
             sendJson(exchange, gson().toJson(subtasks), 200);
         } else {
             sendError(exchange, "Invalid request", 400);
@@ -4,11 +4,13 @@ import com.sun.net.httpserver.HttpExchange;
 import exceptions.NotFoundException;
 import model.Epic;
 import model.Task;
+import model.TaskStatus;
 import service.TaskManager;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
 
 public class TaskHandler extends BaseHttpHandler {
 
@@ -45,13 +47,24 @@ public class TaskHandler extends BaseHttpHandler {
                 }
                 sendJson(exchange, gson().toJson(task), 200); // Здесь мы возвращаем объект
             } else if (path.equals("/tasks")) {
-                List<Task> tasks = taskManager.getAllTasks();
+                Map<String, String> params = getQueryParams(exchange);
+                TaskStatus status = getStatusParam(params);
+                List<Task> tasks;
+                if (status != null) {
+                    tasks = applyPage(taskManager.getTasksByStatus(status), params);
+                } else {
+                    tasks = isPageRequest(params)
+                            ? taskManager.getTasks(getIntParam(params, "offset", 0), getIntParam(params, "limit", Integer.MAX_VALUE))
+                            : taskManager.getAllTasks();
+                }
                 sendJson(exchange, gson().toJson(tasks), 200); // Здесь мы возвращаем массив
             } else {
                 throw new NotFoundException("Invalid request");
             }
         } catch (NotFoundException e) {
             sendError(exchange, e.getMessage(), 404);
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, "Invalid query parameters", 400);
         } catch (Exception e) {
             sendError(exchange, "Internal server error", 500);
         }
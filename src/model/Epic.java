@@ -5,15 +5,29 @@ import service.TaskManager;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Objects;
-import java.util.Optional;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 
 public class Epic extends Task {
-    private final List<Integer> subtaskIds = new ArrayList<>();
+    private final Set<Integer> subtaskIds = new LinkedHashSet<>(); // Индекс подзадач эпика в порядке добавления
+    private final transient Map<Integer, SubtaskState> subtaskStates = new HashMap<>(); // Последнее известное состояние подзадач
+    private final transient int[] statusCounts = new int[TaskStatus.values().length]; // Счётчики подзадач по статусам
+    private final transient TreeMap<LocalDateTime, Integer> subtaskStarts = new TreeMap<>(); // Мультимножество начал подзадач
+    private final transient TreeMap<LocalDateTime, Integer> subtaskEnds = new TreeMap<>(); // Мультимножество концов подзадач
+    private transient Duration totalDuration = Duration.ZERO;
+    private transient LocalDateTime minStartTime;
+    private transient LocalDateTime maxEndTime;
     private TaskManager taskManager;
 
+    // Для Gson: без конструктора по умолчанию поля не инициализируются
+    private Epic() {
+        super(null, null, TaskStatus.NEW);
+    }
+
     public Epic(String name, String description) {
         super(name, description, TaskStatus.NEW);
     }
@@ -36,18 +50,105 @@ public class Epic extends Task {
         return description;
     }
 
-    public void addSubtask(int subtaskId) {
-        subtaskIds.add(subtaskId);
+    // Добавляет подзадачу; повторный вызов обновляет её статус и время в агрегатах
+    public void addSubtask(Subtask subtask) {
+        SubtaskState state = new SubtaskState(subtask);
+        SubtaskState previous = subtaskStates.put(subtask.getId(), state);
+        if (previous != null) {
+            unregister(previous);
+        } else {
+            subtaskIds.add(subtask.getId());
+        }
+        register(state);
+        refreshTimeBounds();
     }
 
     public void removeSubtask(int subtaskId) {
-        subtaskIds.remove(Integer.valueOf(subtaskId));
+        SubtaskState previous = subtaskStates.remove(subtaskId);
+        if (previous != null) {
+            unregister(previous);
+            refreshTimeBounds();
+        }
+        subtaskIds.remove(subtaskId);
     }
 
-    public List<Integer> getSubtaskIds() {
+    public void clearSubtasks() {
+        subtaskIds.clear();
+        subtaskStates.clear();
+        Arrays.fill(statusCounts, 0);
+        subtaskStarts.clear();
+        subtaskEnds.clear();
+        totalDuration = Duration.ZERO;
+        refreshTimeBounds();
+    }
+
+    // Переносит индекс подзадач с предыдущего экземпляра эпика при его замене
+    public void copySubtasksFrom(Epic other) {
+        clearSubtasks();
+        subtaskIds.addAll(other.subtaskIds);
+        subtaskStates.putAll(other.subtaskStates);
+        System.arraycopy(other.statusCounts, 0, statusCounts, 0, statusCounts.length);
+        subtaskStarts.putAll(other.subtaskStarts);
+        subtaskEnds.putAll(other.subtaskEnds);
+        totalDuration = other.totalDuration;
+        refreshTimeBounds();
+    }
+
+    public Set<Integer> getSubtaskIds() {
         return subtaskIds;
     }
 
+    public int getSubtaskCount(TaskStatus status) {
+        return statusCounts[status.ordinal()];
+    }
+
+    // Статус эпика по счётчикам подзадач: O(1) вместо обхода всех подзадач
+    public TaskStatus calculateStatus() {
+        int total = subtaskStates.size();
+        if (total == 0 || statusCounts[TaskStatus.NEW.ordinal()] == total) {
+            return TaskStatus.NEW;
+        }
+        if (statusCounts[TaskStatus.DONE.ordinal()] == total) {
+            return TaskStatus.DONE;
+        }
+        return TaskStatus.IN_PROGRESS;
+    }
+
+    private void register(SubtaskState state) {
+        statusCounts[state.status.ordinal()]++;
+        increment(subtaskStarts, state.startTime);
+        increment(subtaskEnds, state.endTime);
+        if (state.duration != null) {
+            totalDuration = totalDuration.plus(state.duration);
+        }
+    }
+
+    private void unregister(SubtaskState state) {
+        statusCounts[state.status.ordinal()]--;
+        decrement(subtaskStarts, state.startTime);
+        decrement(subtaskEnds, state.endTime);
+        if (state.duration != null) {
+            totalDuration = totalDuration.minus(state.duration);
+        }
+    }
+
+    private void refreshTimeBounds() {
+        minStartTime = subtaskStarts.isEmpty() ? null : subtaskStarts.firstKey();
+        maxEndTime = subtaskEnds.isEmpty() ? null : subtaskEnds.lastKey();
+    }
+
+    private static void increment(TreeMap<LocalDateTime, Integer> counts, LocalDateTime time) {
+        if (time != null) {
+            counts.merge(time, 1, Integer::sum);
+        }
+    }
+
+    private static void decrement(TreeMap<LocalDateTime, Integer> counts, LocalDateTime time) {
+        if (time != null) {
+            counts.computeIfPresent(time, (key, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+
     public TaskManager getTaskManager() {
         return taskManager;
     }
@@ -59,14 +160,8 @@ public class Epic extends Task {
         TaskStatus status = TaskStatus.valueOf(parts[3]);
         String description = parts[4].equals("null") ? null : parts[4];
 
-        Epic epic = new Epic(id, title, status, description, null);
-        if (parts.length > 5) {
-            String[] subtaskIdStrings = parts[5].split(";");
-            for (String subtaskIdString : subtaskIdStrings) {
-                epic.addSubtask(Integer.parseInt(subtaskIdString));
-            }
-        }
-        return epic;
+        // Состав эпика восстанавливается при создании его подзадач
+        return new Epic(id, title, status, description, null);
     }
 
     @Override
@@ -79,35 +174,31 @@ public class Epic extends Task {
 
     @Override
     public LocalDateTime getStartTime() {
-        return subtaskIds.stream()
-                .map(taskManager::getSubtaskById)
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .map(Subtask::getStartTime)
-                .filter(Objects::nonNull)
-                .min(LocalDateTime::compareTo)
-                .orElse(null);
+        return minStartTime;
     }
 
     @Override
     public Duration getDuration() {
-        return subtaskIds.stream()
-                .map(taskManager::getSubtaskById)
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .map(Subtask::getDuration)
-                .reduce(Duration.ZERO, Duration::plus);
+        return totalDuration;
     }
 
     @Override
     public LocalDateTime getEndTime() {
-        return subtaskIds.stream()
-                .map(taskManager::getSubtaskById)
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .map(Subtask::getEndTime)
-                .filter(Objects::nonNull)
-                .max(LocalDateTime::compareTo)
-                .orElse(null);
-    }
-}
\ No newline at end of file
+        return maxEndTime;
+    }
+
+    // Снимок полей подзадачи на момент последнего обновления: подзадачу могут изменить на месте
+    private static final class SubtaskState {
+        private final TaskStatus status;
+        private final LocalDateTime startTime;
+        private final LocalDateTime endTime;
+        private final Duration duration;
+
+        private SubtaskState(Subtask subtask) {
+            this.status = subtask.getStatus() != null ? subtask.getStatus() : TaskStatus.NEW;
+            this.startTime = subtask.getStartTime();
+            this.endTime = subtask.getEndTime();
+            this.duration = subtask.getDuration();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package model;
+
+// Оценка числа просмотров задачи
+public class ViewCount {
+    private final int id;
+    private final int views;
+
+    public ViewCount(int id, int views) {
+        this.id = id;
+        this.views = views;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public int getViews() {
+        return views;
+    }
+
+    @Override
+    public String toString() {
+        return id + ":" + views;
+    }
+}
@@ -0,0 +1,109 @@
+package service;
+
+import model.Task;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+// Запись истории вне пути чтения: просмотр лишь кладёт событие в неблокирующую очередь,
+// а фоновый поток переносит события в обёрнутую историю под её монитором.
+// Порядок событий сохраняется; flush() применяет накопленные события сразу, для чтения своих просмотров.
+public class AsyncHistoryManager implements HistoryManager, AutoCloseable {
+    private final HistoryManager delegate;
+    private final ConcurrentLinkedQueue<Event> events = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean signalled = new AtomicBoolean(); // Будить поток только один раз на пачку событий
+    private final Thread drainer;
+    private volatile boolean running = true;
+
+    public AsyncHistoryManager(HistoryManager delegate) {
+        this.delegate = delegate;
+        drainer = new Thread(this::drainLoop, "history-drainer");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    @Override
+    public void add(Task task) {
+        if (task == null) return;
+        enqueue(new Event(task, task.getId()));
+    }
+
+    @Override
+    public void remove(int id) {
+        enqueue(new Event(null, id));
+    }
+
+    // Состояние на момент последнего применения событий; для свежих данных вызвать flush()
+    @Override
+    public List<Task> getHistory() {
+        synchronized (delegate) {
+            return delegate.getHistory();
+        }
+    }
+
+    @Override
+    public void flush() {
+        drain();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(drainer);
+        try {
+            drainer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        drain();
+    }
+
+    private void enqueue(Event event) {
+        events.offer(event);
+        if (signalled.compareAndSet(false, true)) {
+            LockSupport.unpark(drainer);
+        }
+    }
+
+    private void drainLoop() {
+        while (running) {
+            drain();
+            signalled.set(false);
+            if (events.isEmpty() && running) {
+                LockSupport.park(this);
+            }
+        }
+    }
+
+    private void drain() {
+        synchronized (delegate) {
+            String callerSession = SessionContext.current();
+            try {
+                Event event;
+                while ((event = events.poll()) != null) {
+                    SessionContext.bind(event.session); // Событие применяется в сессии, где произошёл просмотр
+                    if (event.task != null) {
+                        delegate.add(event.task);
+                    } else {
+                        delegate.remove(event.id);
+                    }
+                }
+            } finally {
+                SessionContext.bind(callerSession);
+            }
+        }
+    }
+
+    private static class Event {
+        final Task task; // null - удаление
+        final int id;
+        final String session = SessionContext.current();
+
+        Event(Task task, int id) {
+            this.task = task;
+            this.id = id;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package service;
+
+import exceptions.ManagerReadFileException;
+import exceptions.ManagerSaveException;
+import model.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+// Хранение в двоичном снимке (см. BinarySnapshotCodec) вместо CSV: без разбора строк и дат,
+// с сохранением времени подзадач, произвольного текста и исходных id. CSV остаётся форматом импорта и экспорта.
+public class BinaryFileTaskManager extends FileBackedTaskManager {
+    public BinaryFileTaskManager(File file) {
+        super(file);
+    }
+
+    public static BinaryFileTaskManager load(File file) {
+        BinaryFileTaskManager manager = new BinaryFileTaskManager(file);
+        if (!file.exists()) {
+            return manager;
+        }
+        try {
+            List<Task> items = new ArrayList<>();
+            BinarySnapshotCodec.read(file, items::add);
+            manager.restoreAll(items);
+            manager.restoreHistory();
+        } catch (IOException | RuntimeException e) {
+            throw new ManagerReadFileException("Ошибка загрузки снимка " + file, e);
+        }
+        return manager;
+    }
+
+    // Переносит задачи из CSV прежнего формата в двоичный снимок file
+    public static BinaryFileTaskManager importCsv(File csvFile, File file) {
+        try (FileBackedTaskManager source = FileBackedTaskManager.loadFromFile(csvFile)) {
+            BinarySnapshotCodec.write(file, source.getAllEpics(), source.getAllTasks(), source.getAllSubtasks());
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка импорта " + csvFile, e);
+        }
+        return load(file);
+    }
+
+    @Override
+    void save() {
+        try {
+            BinarySnapshotCodec.write(file, getAllEpics(), getAllTasks(), getAllSubtasks());
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка сохранения снимка", e);
+        }
+        saveHistory();
+    }
+}
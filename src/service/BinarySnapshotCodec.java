@@ -0,0 +1,344 @@
+package service;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+// Двоичный снимок задач, версия 1.
+// Заголовок (28 байт): магическое число TMSB, версия, флаги, число записей, длина тела, CRC32 тела, CRC32 заголовка.
+// Запись: тип, id (varint), статус (0 - null, иначе ordinal + 1), у подзадачи id эпика (varint),
+// у задач и подзадач байт присутствия времени, начало (секунды эпохи UTC в zigzag varint и наносекунды)
+// и длительность (секунды и наносекунды), затем название и описание (varint длины + 1, 0 - null; байты UTF-8).
+// Эпики записываются первыми: при восстановлении подзадача привязывается к уже существующему эпику.
+final class BinarySnapshotCodec {
+    static final int MAGIC = 0x544D5342; // "TMSB"
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 28;
+
+    private static final byte TASK = 1;
+    private static final byte EPIC = 2;
+    private static final byte SUBTASK = 3;
+    private static final int HAS_START = 1;
+    private static final int HAS_DURATION = 2;
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+
+    private BinarySnapshotCodec() {
+    }
+
+    // Пишет снимок во временный файл и атомарно подменяет им прежний
+    static void write(File file, List<Epic> epics, List<Task> tasks, List<Subtask> subtasks) throws IOException {
+        write(file, encode(epics, tasks, subtasks));
+    }
+
+    // Кодирует снимок в память: заголовок и тело. Ввода-вывода нет, поэтому можно вызывать под блокировкой
+    static ByteBuffer[] encode(List<Epic> epics, List<Task> tasks, List<Subtask> subtasks) {
+        ByteBuffer body = ByteBuffer.allocate(64 * 1024);
+        for (Epic epic : epics) {
+            body = encode(body, epic, EPIC);
+        }
+        for (Task task : tasks) {
+            body = encode(body, task, TASK);
+        }
+        for (Subtask subtask : subtasks) {
+            body = encode(body, subtask, SUBTASK);
+        }
+        body.flip();
+        return new ByteBuffer[]{header(epics.size() + tasks.size() + subtasks.size(), body), body};
+    }
+
+    static void write(File file, ByteBuffer[] snapshot) throws IOException {
+        File tmp = new File(file.getPath() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer[] buffers = {snapshot[0].duplicate(), snapshot[1].duplicate()};
+            while (buffers[1].hasRemaining()) {
+                channel.write(buffers);
+            }
+            channel.force(false);
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Читает снимок целиком в буфер; записи передаются в порядке файла
+    static void read(File file, Consumer<Task> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Снимок слишком большой: " + size + " байт");
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    throw new IOException("Снимок укоротился во время чтения");
+                }
+            }
+            buffer.flip();
+            read(buffer, consumer);
+        }
+    }
+
+    static void read(ByteBuffer buffer, Consumer<Task> consumer) throws IOException {
+        int count = checkHeader(buffer);
+        for (int i = 0; i < count; i++) {
+            consumer.accept(decode(buffer));
+        }
+        if (buffer.hasRemaining()) {
+            throw new IOException("Лишние данные после последней записи снимка");
+        }
+    }
+
+    // Проверяет заголовок и контрольную сумму тела; оставляет позицию буфера в начале тела и возвращает число записей
+    static int checkHeader(ByteBuffer buffer) throws IOException {
+        int bodyCrc = bodyCrc(buffer);
+        int count = checkHeaderOnly(buffer);
+        checkBody(buffer.slice(), bodyCrc);
+        return count;
+    }
+
+    // Контрольная сумма тела из ещё не прочитанного заголовка
+    static int bodyCrc(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < HEADER_SIZE) {
+            throw new IOException("Снимок короче заголовка");
+        }
+        return buffer.getInt(buffer.position() + 20);
+    }
+
+    // Проверка тела отдельно от заголовка нужна для быстрого старта: тело проверяется уже в фоне
+    static void checkBody(ByteBuffer body, int bodyCrc) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(body.duplicate());
+        if ((int) crc.getValue() != bodyCrc) {
+            throw new IOException("Повреждено тело снимка");
+        }
+    }
+
+    // Проверяет только заголовок, за O(1); оставляет позицию буфера в начале тела и возвращает число записей
+    static int checkHeaderOnly(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < HEADER_SIZE) {
+            throw new IOException("Снимок короче заголовка");
+        }
+        int start = buffer.position();
+        CRC32 headerCrc = new CRC32();
+        headerCrc.update(buffer.slice().limit(HEADER_SIZE - 4));
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Файл не является снимком задач");
+        }
+        short version = buffer.getShort();
+        buffer.getShort(); // Флаги, зарезервировано
+        int count = buffer.getInt();
+        long bodyLength = buffer.getLong();
+        buffer.getInt(); // CRC32 тела, см. checkBody
+        if (buffer.getInt() != (int) headerCrc.getValue()) {
+            throw new IOException("Повреждён заголовок снимка");
+        }
+        if (version != VERSION) {
+            throw new IOException("Неподдерживаемая версия снимка: " + version);
+        }
+        if (count < 0 || bodyLength != buffer.remaining()) {
+            throw new IOException("Длина тела снимка не совпадает с заголовком");
+        }
+        buffer.position(start + HEADER_SIZE);
+        return count;
+    }
+
+    static Task decode(ByteBuffer buffer) throws IOException {
+        byte type = buffer.get();
+        int id = readVarInt(buffer);
+        int statusCode = buffer.get();
+        if (statusCode < 0 || statusCode > STATUSES.length) {
+            throw new IOException("Неизвестный статус в снимке: " + statusCode);
+        }
+        TaskStatus status = statusCode == 0 ? null : STATUSES[statusCode - 1];
+        if (type == EPIC) {
+            String title = readString(buffer);
+            String description = readString(buffer);
+            return new Epic(id, title, status, description, null);
+        }
+        int epicId = type == SUBTASK ? readVarInt(buffer) : 0;
+        int presence = buffer.get();
+        LocalDateTime startTime = (presence & HAS_START) != 0
+                ? LocalDateTime.ofEpochSecond(readVarLong(buffer), readVarInt(buffer), ZoneOffset.UTC)
+                : null;
+        Duration duration = (presence & HAS_DURATION) != 0
+                ? Duration.ofSeconds(readVarLong(buffer), readVarInt(buffer))
+                : null;
+        String title = readString(buffer);
+        String description = readString(buffer);
+        if (type == SUBTASK) {
+            return new Subtask(id, title, description, status, epicId, duration, startTime);
+        }
+        if (type == TASK) {
+            return new Task(id, title, description, status, duration, startTime);
+        }
+        throw new IOException("Неизвестный тип записи: " + type);
+    }
+
+    // Пропускает запись без создания объектов; возвращает её id. Нужен для индекса смещений
+    static int skip(ByteBuffer buffer) throws IOException {
+        byte type = buffer.get();
+        int id = readVarInt(buffer);
+        buffer.get(); // Статус
+        if (type != EPIC) {
+            if (type == SUBTASK) {
+                readRawVarLong(buffer);
+            }
+            int presence = buffer.get();
+            if ((presence & HAS_START) != 0) {
+                readRawVarLong(buffer);
+                readRawVarLong(buffer);
+            }
+            if ((presence & HAS_DURATION) != 0) {
+                readRawVarLong(buffer);
+                readRawVarLong(buffer);
+            }
+        }
+        skipString(buffer);
+        skipString(buffer);
+        return id;
+    }
+
+    private static ByteBuffer header(int count, ByteBuffer body) {
+        CRC32 bodyCrc = new CRC32();
+        bodyCrc.update(body.duplicate());
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putShort(VERSION).putShort((short) 0).putInt(count)
+                .putLong(body.remaining()).putInt((int) bodyCrc.getValue());
+        CRC32 headerCrc = new CRC32();
+        headerCrc.update(header.array(), 0, HEADER_SIZE - 4);
+        header.putInt((int) headerCrc.getValue());
+        return header.flip();
+    }
+
+    private static ByteBuffer encode(ByteBuffer buffer, Task task, byte type) {
+        byte[] title = bytes(task.getTitle());
+        byte[] description = bytes(task.getDescription());
+        // Оценка сверху: числа не длиннее 10 байт, строки с префиксом длины
+        buffer = ensureCapacity(buffer, 64 + length(title) + length(description));
+        buffer.put(type);
+        writeVarLong(buffer, task.getId());
+        buffer.put((byte) (task.getStatus() == null ? 0 : task.getStatus().ordinal() + 1));
+        if (type != EPIC) { // Время эпика вычисляется по подзадачам
+            if (type == SUBTASK) {
+                writeVarLong(buffer, ((Subtask) task).getEpicId());
+            }
+            LocalDateTime start = task.getStartTime();
+            Duration duration = task.getDuration();
+            buffer.put((byte) ((start != null ? HAS_START : 0) | (duration != null ? HAS_DURATION : 0)));
+            if (start != null) {
+                writeVarLong(buffer, zigzag(start.toEpochSecond(ZoneOffset.UTC)));
+                writeVarLong(buffer, start.getNano());
+            }
+            if (duration != null) {
+                writeVarLong(buffer, zigzag(duration.getSeconds()));
+                writeVarLong(buffer, duration.getNano());
+            }
+        }
+        writeString(buffer, title);
+        writeString(buffer, description);
+        return buffer;
+    }
+
+    private static ByteBuffer ensureCapacity(ByteBuffer buffer, int needed) {
+        if (buffer.remaining() >= needed) {
+            return buffer;
+        }
+        int capacity = Math.max(buffer.capacity() * 2, buffer.position() + needed);
+        ByteBuffer grown = ByteBuffer.allocate(capacity);
+        buffer.flip();
+        return grown.put(buffer);
+    }
+
+    private static byte[] bytes(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static int length(byte[] value) {
+        return value != null ? value.length : 0;
+    }
+
+    private static void writeString(ByteBuffer buffer, byte[] value) {
+        if (value == null) {
+            buffer.put((byte) 0);
+            return;
+        }
+        writeVarLong(buffer, value.length + 1L);
+        buffer.put(value);
+    }
+
+    private static String readString(ByteBuffer buffer) throws IOException {
+        int length = readVarInt(buffer) - 1;
+        if (length < 0) {
+            return null;
+        }
+        if (length > buffer.remaining()) {
+            throw new IOException("Строка выходит за границы снимка");
+        }
+        byte[] value = new byte[length];
+        buffer.get(value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    private static void skipString(ByteBuffer buffer) throws IOException {
+        int length = readVarInt(buffer) - 1;
+        if (length > buffer.remaining()) {
+            throw new IOException("Строка выходит за границы снимка");
+        }
+        if (length > 0) {
+            buffer.position(buffer.position() + length);
+        }
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static void writeVarLong(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static int readVarInt(ByteBuffer buffer) throws IOException {
+        long value = readRawVarLong(buffer);
+        if (value < 0 || value > Integer.MAX_VALUE) {
+            throw new IOException("Некорректное число в снимке: " + value);
+        }
+        return (int) value;
+    }
+
+    // Секунды хранятся в zigzag-кодировке, чтобы даты до 1970 года оставались короткими
+    private static long readVarLong(ByteBuffer buffer) throws IOException {
+        long raw = readRawVarLong(buffer);
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    private static long readRawVarLong(ByteBuffer buffer) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("Слишком длинное число в снимке");
+    }
+}
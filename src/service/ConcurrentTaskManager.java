@@ -0,0 +1,346 @@
+package service;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+import model.TaskType;
+import model.TimeSlot;
+import model.ViewCount;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// Потокобезопасный менеджер для многопоточного HTTP-сервера.
+// Чтения выполняются параллельно под общей блокировкой чтения, изменения - под блокировкой записи,
+// поэтому проверка пересечений и вставка задачи атомарны. История пополняется при чтении задач, поэтому
+// обычная история оборачивается в AsyncHistoryManager: просмотр лишь кладёт событие в неблокирующую очередь,
+// и параллельные чтения не сходятся на мониторе истории.
+public class ConcurrentTaskManager extends InMemoryTaskManager {
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Lock readLock = lock.readLock();
+    private final Lock writeLock = lock.writeLock();
+
+    public ConcurrentTaskManager() {
+        this(Managers.getDefaultHistory());
+    }
+
+    public ConcurrentTaskManager(HistoryManager historyManager) {
+        super(threadSafe(historyManager));
+    }
+
+    // Сессионная и асинхронная истории потокобезопасны сами
+    private static HistoryManager threadSafe(HistoryManager historyManager) {
+        if (historyManager instanceof SessionHistoryManager || historyManager instanceof AsyncHistoryManager) {
+            return historyManager;
+        }
+        return new AsyncHistoryManager(historyManager);
+    }
+
+    @Override
+    public int createTask(Task task) {
+        return write(() -> super.createTask(task));
+    }
+
+    @Override
+    public int createSubtask(Subtask subtask) {
+        return write(() -> super.createSubtask(subtask));
+    }
+
+    @Override
+    public int createEpic(Epic epic) {
+        return write(() -> super.createEpic(epic));
+    }
+
+    @Override
+    public List<Integer> createBatch(List<? extends Task> items) {
+        return write(() -> super.createBatch(items));
+    }
+
+    @Override
+    public void updateBatch(List<? extends Task> items) {
+        write(() -> {
+            super.updateBatch(items);
+            return null;
+        });
+    }
+
+    @Override
+    public int deleteBatch(Collection<Integer> ids) {
+        return write(() -> super.deleteBatch(ids));
+    }
+
+    @Override
+    public boolean validateTask(Task task) {
+        return read(() -> super.validateTask(task));
+    }
+
+    @Override
+    public void addToHistory(int taskId) {
+        read(() -> {
+            super.addToHistory(taskId);
+            return null;
+        });
+    }
+
+    @Override
+    public Task getTaskById(int id) {
+        return read(() -> super.getTaskById(id));
+    }
+
+    @Override
+    public Subtask getSubtaskById(int id) {
+        return read(() -> super.getSubtaskById(id));
+    }
+
+    @Override
+    public Epic getEpicById(int id) {
+        return read(() -> super.getEpicById(id));
+    }
+
+    @Override
+    public Optional<Task> getTaskById(Integer taskId) {
+        return read(() -> super.getTaskById(taskId));
+    }
+
+    @Override
+    public Optional<Epic> getEpicById(Integer epicId) {
+        return read(() -> super.getEpicById(epicId));
+    }
+
+    @Override
+    public Optional<Subtask> getSubtaskById(Integer subtaskId) {
+        return read(() -> super.getSubtaskById(subtaskId));
+    }
+
+    @Override
+    public List<Task> getAllTasks() {
+        return read(super::getAllTasks);
+    }
+
+    @Override
+    public List<Subtask> getAllSubtasks() {
+        return read(super::getAllSubtasks);
+    }
+
+    @Override
+    public List<Epic> getAllEpics() {
+        return read(super::getAllEpics);
+    }
+
+    @Override
+    public List<Task> getTasks(int offset, int limit) {
+        return read(() -> super.getTasks(offset, limit));
+    }
+
+    @Override
+    public List<Subtask> getSubtasks(int offset, int limit) {
+        return read(() -> super.getSubtasks(offset, limit));
+    }
+
+    @Override
+    public List<Epic> getEpics(int offset, int limit) {
+        return read(() -> super.getEpics(offset, limit));
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(int offset, int limit) {
+        return read(() -> super.getPrioritizedTasks(offset, limit));
+    }
+
+    @Override
+    public void forEachTask(Consumer<? super Task> action) {
+        read(() -> {
+            super.forEachTask(action);
+            return null;
+        });
+    }
+
+    @Override
+    public void forEachSubtask(Consumer<? super Subtask> action) {
+        read(() -> {
+            super.forEachSubtask(action);
+            return null;
+        });
+    }
+
+    @Override
+    public void forEachEpic(Consumer<? super Epic> action) {
+        read(() -> {
+            super.forEachEpic(action);
+            return null;
+        });
+    }
+
+    @Override
+    public void forEachPrioritizedTask(Consumer<? super Task> action) {
+        read(() -> {
+            super.forEachPrioritizedTask(action);
+            return null;
+        });
+    }
+
+    @Override
+    public boolean deleteTask(int id) {
+        return write(() -> super.deleteTask(id));
+    }
+
+    @Override
+    public void deleteSubtask(int id) {
+        write(() -> {
+            super.deleteSubtask(id);
+            return null;
+        });
+    }
+
+    @Override
+    public void deleteEpic(int id) {
+        write(() -> {
+            super.deleteEpic(id);
+            return null;
+        });
+    }
+
+    @Override
+    public void updateSubtask(Subtask subtask) {
+        write(() -> {
+            super.updateSubtask(subtask);
+            return null;
+        });
+    }
+
+    @Override
+    public boolean updateTask(Task task) {
+        return write(() -> super.updateTask(task));
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        write(() -> {
+            super.updateEpic(epic);
+            return null;
+        });
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        return read(super::getPrioritizedTasks);
+    }
+
+    @Override
+    public List<Subtask> getSubtasksByEpicId(int epicId) {
+        return read(() -> super.getSubtasksByEpicId(epicId));
+    }
+
+    @Override
+    public List<ViewCount> getHotTasks(int limit) {
+        return read(() -> super.getHotTasks(limit));
+    }
+
+    @Override
+    public List<Task> search(String query, int limit) {
+        return read(() -> super.search(query, limit));
+    }
+
+    @Override
+    public List<Task> getTasksByStatus(TaskStatus status) {
+        return read(() -> super.getTasksByStatus(status));
+    }
+
+    @Override
+    public List<Subtask> getSubtasksByStatus(TaskStatus status) {
+        return read(() -> super.getSubtasksByStatus(status));
+    }
+
+    @Override
+    public List<Epic> getEpicsByStatus(TaskStatus status) {
+        return read(() -> super.getEpicsByStatus(status));
+    }
+
+    @Override
+    public int getStatusCount(TaskType type, TaskStatus status) {
+        return read(() -> super.getStatusCount(type, status));
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to, int limit) {
+        return read(() -> super.getPrioritizedTasks(from, to, limit));
+    }
+
+    @Override
+    public List<Task> getTasksStartingFrom(LocalDateTime from, int limit) {
+        return read(() -> super.getTasksStartingFrom(from, limit));
+    }
+
+    @Override
+    public List<Task> getTasksStartingBefore(LocalDateTime before, int limit) {
+        return read(() -> super.getTasksStartingBefore(before, limit));
+    }
+
+    @Override
+    public TimeSlot findFreeSlot(LocalDateTime after, Duration duration) {
+        return read(() -> super.findFreeSlot(after, duration));
+    }
+
+    @Override
+    public List<TimeSlot> findFreeSlots(LocalDateTime from, LocalDateTime to, Duration minDuration, int limit) {
+        return read(() -> super.findFreeSlots(from, to, minDuration, limit));
+    }
+
+    @Override
+    public List<Task> getOverlappingTasks(Task task) {
+        return read(() -> super.getOverlappingTasks(task));
+    }
+
+    protected <T> T read(Supplier<T> action) {
+        readLock.lock();
+        try {
+            return action.get();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    protected <T> T write(Supplier<T> action) {
+        T result = null;
+        RuntimeException failure = null;
+        writeLock.lock();
+        try {
+            result = action.get();
+        } catch (RuntimeException e) {
+            failure = e;
+        } finally {
+            writeLock.unlock();
+        }
+        if (lock.isWriteLockedByCurrentThread()) { // Вложенная запись ещё под внешней блокировкой
+            if (failure != null) {
+                throw failure;
+            }
+            return result;
+        }
+        if (failure == null) {
+            afterWrite();
+            return result;
+        }
+        // Изменение могло успеть отдать записи на сохранение: их ожидание нужно завершить,
+        // но его ошибка не должна подменять исходную
+        try {
+            afterWrite();
+        } catch (RuntimeException e) {
+            failure.addSuppressed(e);
+        }
+        throw failure;
+    }
+
+    // Вызывается после снятия блокировки записи; наследники могут здесь дождаться сохранения изменения,
+    // не задерживая других писателей
+    protected void afterWrite() {
+    }
+}
@@ -1,86 +1,206 @@
 package service;
 
+import exceptions.ManagerReadFileException;
 import exceptions.ManagerSaveException;
 import model.Epic;
 import model.Subtask;
 import model.Task;
 
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 
-public class FileBackedTaskManager extends InMemoryTaskManager {
-    private final File file;
+public class FileBackedTaskManager extends InMemoryTaskManager implements Closeable {
+    private static final int MIN_HISTORY_LOG_RECORDS = 1024;
+    private static final long HISTORY_FLUSH_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    protected final File file; // Основной файл хранилища; формат определяет наследник
+    // Журнал просмотров: по одному id на строку, только дозапись; периодически сжимается до текущей истории.
+    // Просмотр пишет лишь в буфер; на диск буфер сбрасывает фоновый поток раз в секунду, save() и close(),
+    // поэтому при сбое теряются только просмотры последней секунды. Поля журнала - под historyLock
+    private final File historyFile;
+    private final Object historyLock = new Object();
+    private BufferedWriter historyLog;
+    private int historyLogRecords;
+    private int historyCompactionThreshold = MIN_HISTORY_LOG_RECORDS;
+    private Thread historyFlusher;
+    private volatile boolean running = true;
 
     public FileBackedTaskManager(File file) {
         this.file = file;
+        this.historyFile = new File(file.getPath() + ".history");
     }
 
+    // После каждого изменения файл переписывается целиком; наследники могут сохранять только само изменение
     @Override
-    public int createTask(Task task) {
-        int id = super.createTask(task); // Устанавливаем уникальный идентификатор
+    protected void persist(List<? extends Task> changed, Collection<Integer> deleted) {
         save();
-        return id;
     }
 
     @Override
-    public int createSubtask(Subtask subtask) {
-        int createdSubtaskId = super.createSubtask(subtask);
-        save();
-        return createdSubtaskId;
+    public List<Task> getHistory() {
+        return super.getHistory();
     }
 
     @Override
-    public int createEpic(Epic epic) {
-        int createdEpicId = super.createEpic(epic);
-        save();
-        return createdEpicId;
+    public Task getTaskById(int id) {
+        return super.getTaskById(id);
     }
 
-    @Override
-    public boolean deleteTask(int id) {
-        super.deleteTask(id);
-        save();
-        return false;
+    public Subtask getSubtaskById(int id) {
+        return super.getSubtaskById(id);
     }
 
-    @Override
-    public void deleteSubtask(int id) {
-        super.deleteSubtask(id);
+    public void updateTask(int id, Task task) {
         save();
     }
 
+    // Просмотр дописывает одну строку в буфер журнала истории; сжатие журнала - забота фонового потока
     @Override
-    public void deleteEpic(int id) {
-        super.deleteEpic(id);
-        save();
+    protected void recordView(Task task) {
+        super.recordView(task);
+        synchronized (historyLock) {
+            try {
+                if (historyLog == null) {
+                    compactHistory(); // Первый просмотр: журнал начинается с текущей истории
+                    startHistoryFlusher();
+                    return;
+                }
+                historyLog.write(Integer.toString(task.getId()));
+                historyLog.newLine();
+                historyLogRecords++;
+            } catch (IOException e) {
+                throw new ManagerSaveException("Ошибка сохранения истории", e);
+            }
+        }
     }
 
-    @Override
-    public void updateSubtask(Subtask subtask) {
-        super.updateSubtask(subtask);
-        save();
+    // Сбрасывает буфер журнала на диск, а разросшийся журнал сжимает
+    void flushHistory() throws IOException {
+        synchronized (historyLock) {
+            if (historyLog == null) {
+                return;
+            }
+            if (historyLogRecords > historyCompactionThreshold) {
+                compactHistory();
+            } else {
+                historyLog.flush();
+            }
+        }
     }
 
-    @Override
-    public List<Task> getHistory() {
-        return super.getHistory();
+    private void startHistoryFlusher() {
+        if (historyFlusher != null) {
+            return;
+        }
+        historyFlusher = new Thread(this::historyFlushLoop, "history-flusher");
+        historyFlusher.setDaemon(true);
+        historyFlusher.start();
     }
 
-    @Override
-    public Task getTaskById(int id) {
-        return super.getTaskById(id);
+    private void historyFlushLoop() {
+        while (running) {
+            LockSupport.parkNanos(this, HISTORY_FLUSH_INTERVAL_NANOS);
+            if (!running) {
+                return;
+            }
+            try {
+                flushHistory();
+            } catch (IOException e) {
+                // Записи остаются в буфере: попытка повторится на следующем шаге, а close() выбросит ошибку
+            }
+        }
     }
 
-    public Subtask getSubtaskById(int id) {
-        return super.getSubtaskById(id);
+    // Переписывает журнал так, чтобы в нём была только текущая история (через временный файл); под historyLock
+    void compactHistory() throws IOException {
+        closeHistoryLog();
+        List<Task> history = getHistory();
+        File tmp = new File(historyFile.getPath() + ".tmp");
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(tmp))) {
+            for (Task task : history) {
+                writer.write(Integer.toString(task.getId()));
+                writer.newLine();
+            }
+        }
+        Files.move(tmp.toPath(), historyFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        historyLog = new BufferedWriter(new FileWriter(historyFile, true));
+        historyLogRecords = history.size();
+        historyCompactionThreshold = Math.max(MIN_HISTORY_LOG_RECORDS, 2 * history.size());
     }
 
-    public void updateTask(int id, Task task) {
-        save();
+    private void closeHistoryLog() throws IOException {
+        if (historyLog != null) {
+            historyLog.close();
+            historyLog = null;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        Thread flusher;
+        synchronized (historyLock) {
+            flusher = historyFlusher;
+        }
+        if (flusher != null) {
+            LockSupport.unpark(flusher);
+            try {
+                flusher.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (historyLock) {
+            closeHistoryLog();
+        }
+    }
+
+    // Повтор журнала: порядок строк - порядок просмотров; id удалённых задач пропускаются
+    void restoreHistory() throws IOException {
+        if (!historyFile.exists()) {
+            return;
+        }
+        try (BufferedReader reader = new BufferedReader(new FileReader(historyFile))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+                int id = Integer.parseInt(line.trim());
+                Task task = tasks.get(id);
+                if (task == null) task = subtasks.get(id);
+                if (task == null) task = epics.get(id);
+                if (task != null) {
+                    historyManager.add(task);
+                }
+            }
+        } catch (NumberFormatException e) {
+            throw new ManagerReadFileException("Повреждён журнал истории " + historyFile, e);
+        }
+        // Журнал не переписывается при загрузке: его сожмёт первый просмотр
     }
 
     void save() {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file))) {
+        exportCsv(file);
+        saveHistory();
+    }
+
+    // Явное сохранение сбрасывает на диск и буфер журнала истории
+    void saveHistory() {
+        try {
+            flushHistory();
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка сохранения истории", e);
+        }
+    }
+
+    // Выгрузка в CSV; для режимов с другим форматом хранения остаётся способом экспорта
+    public void exportCsv(File target) {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(target))) {
             writer.write("id,type,name,status,description,epic\n");
             for (Task task : getAllTasks()) {
                 writer.write(formatTask(task));
@@ -119,32 +239,28 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
                 subtask.getEpicId());
     }
 
+    // Файл не перезаписывается во время чтения: задачи восстанавливаются одним пакетом с исходными id
     public static FileBackedTaskManager loadFromFile(File file) {
+        FileBackedTaskManager manager = new FileBackedTaskManager(file);
         if (!file.exists()) {
-            return new FileBackedTaskManager(file);
+            return manager;
         }
-        FileBackedTaskManager manager = new FileBackedTaskManager(file);
+        List<Task> items = new ArrayList<>();
         try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
             String line;
             while ((line = reader.readLine()) != null) {
                 if (line.startsWith("id,type,name,status,description,epic")) {
                     continue; // Пропускаем заголовок
                 }
-                Task task = Task.fromString(line, manager); // Измененный вызов
-                if (task instanceof Epic) {
-                    manager.createEpic((Epic) task); // Создаем эпик
-                } else if (task instanceof Subtask) {
-                    manager.createSubtask((Subtask) task); // Создаем подзадачу
-                } else if (task != null) {
-                    manager.createTask(task); // Создаем задачу в менеджере
-                }
-
-                // Обновляем idCounter, если текущий id задачи больше
-                if (task != null && task.getId() >= manager.idCounter) {
-                    manager.idCounter = task.getId() + 1; // Увеличиваем idCounter для следующего создания
+                Task task = Task.fromString(line, manager);
+                if (task != null) {
+                    items.add(task);
                 }
             }
-        } catch (IOException e) {
+            manager.restoreAll(items);
+            manager.restoreHistory();
+        } catch (IOException | RuntimeException e) {
+            throw new ManagerReadFileException("Ошибка загрузки файла " + file, e);
         }
         return manager;
     }
@@ -0,0 +1,135 @@
+package service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Групповая фиксация поверх журнала изменений: записи из разных потоков копятся в очереди,
+// единственный поток-писатель сбрасывает их одной записью и одним FileChannel.force.
+// Каждый вызов append получает future, который завершается, когда его записи уже на диске.
+// Пачка уходит на диск, когда в ней набралось maxBatchSize записей или с первой записи прошло maxDelay.
+public class GroupCommitLog implements Closeable {
+    private final WriteAheadLog log;
+    private final long maxDelayNanos;
+    private final int maxBatchSize;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition pending = lock.newCondition();
+    private final Thread writer;
+
+    private List<String> records = new ArrayList<>();
+    private List<CompletableFuture<Void>> waiters = new ArrayList<>();
+    private long firstRecordAt;
+    private boolean closed;
+    private long batches;
+
+    public GroupCommitLog(WriteAheadLog log, Duration maxDelay, int maxBatchSize) {
+        if (maxDelay == null || maxDelay.isNegative()) {
+            throw new IllegalArgumentException("Задержка пачки не может быть отрицательной");
+        }
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Размер пачки должен быть положительным");
+        }
+        this.log = log;
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        this.writer = new Thread(this::writeLoop, "group-commit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public CompletableFuture<Void> append(List<String> batch) {
+        CompletableFuture<Void> ack = new CompletableFuture<>();
+        if (batch.isEmpty()) {
+            ack.complete(null);
+            return ack;
+        }
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Журнал закрыт");
+            }
+            if (records.isEmpty()) {
+                firstRecordAt = System.nanoTime();
+            }
+            records.addAll(batch);
+            waiters.add(ack);
+            pending.signal();
+        } finally {
+            lock.unlock();
+        }
+        return ack;
+    }
+
+    // Число сброшенных на диск пачек
+    public long getBatchCount() {
+        lock.lock();
+        try {
+            return batches;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Дописывает оставшиеся записи и останавливает писателя
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            closed = true;
+            pending.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeLoop() {
+        while (true) {
+            List<String> batch;
+            List<CompletableFuture<Void>> acks;
+            lock.lock();
+            try {
+                while (records.isEmpty() && !closed) {
+                    pending.awaitUninterruptibly();
+                }
+                if (records.isEmpty()) {
+                    return;
+                }
+                // Ждём попутчиков, пока пачка не заполнится или не истечёт задержка первой записи
+                long remaining = firstRecordAt + maxDelayNanos - System.nanoTime();
+                while (records.size() < maxBatchSize && remaining > 0 && !closed) {
+                    try {
+                        pending.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        break;
+                    }
+                    remaining = firstRecordAt + maxDelayNanos - System.nanoTime();
+                }
+                batch = records;
+                acks = waiters;
+                records = new ArrayList<>();
+                waiters = new ArrayList<>();
+                batches++;
+            } finally {
+                lock.unlock();
+            }
+            try {
+                log.append(batch);
+                log.sync();
+                acks.forEach(ack -> ack.complete(null));
+            } catch (IOException | RuntimeException e) {
+                acks.forEach(ack -> ack.completeExceptionally(e));
+            }
+        }
+    }
+}
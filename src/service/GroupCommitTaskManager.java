@@ -0,0 +1,121 @@
+package service;
+
+import exceptions.ManagerReadFileException;
+import exceptions.ManagerSaveException;
+import model.Task;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+// Режим хранения с групповой фиксацией: изменения из разных потоков ставятся в общую очередь журнала,
+// один писатель сбрасывает их вместе с единственным FileChannel.force (см. GroupCommitLog).
+// Изменение применяется в памяти под блокировкой записи, а ожидание подтверждения с диска идёт уже после неё,
+// поэтому пока один поток ждёт fsync, другие успевают добавить свои записи в ту же пачку.
+// Метод-изменение возвращает управление только после того, как его записи сохранены.
+// Формат снимка и журнала, контрольные точки и восстановление - как в WalTaskManager.
+// Новое хранилище создаёт create, существующее открывает load.
+public class GroupCommitTaskManager extends ConcurrentTaskManager implements Closeable {
+    private static final int MIN_CHECKPOINT_RECORDS = 4096;
+
+    private final File snapshotFile;
+    private final WriteAheadLog wal;
+    private final GroupCommitLog commitLog;
+    private final ThreadLocal<CompletableFuture<Void>> pendingAck = new ThreadLocal<>();
+    private int checkpointThreshold = MIN_CHECKPOINT_RECORDS;
+
+    // Новое пустое хранилище; если в file уже есть снимок или журнал, бросает исключение
+    public static GroupCommitTaskManager create(File file, Duration maxDelay, int maxBatchSize) {
+        TaskCheckpoint.checkAbsent(file);
+        return new GroupCommitTaskManager(file, maxDelay, maxBatchSize, true);
+    }
+
+    private GroupCommitTaskManager(File file, Duration maxDelay, int maxBatchSize, boolean fresh) {
+        super(Managers.getDefaultHistory());
+        this.snapshotFile = file;
+        try {
+            this.wal = new WriteAheadLog(new File(file.getPath() + ".wal"));
+        } catch (IOException e) {
+            throw new ManagerSaveException("Не удалось открыть журнал изменений", e);
+        }
+        this.commitLog = new GroupCommitLog(wal, maxDelay, maxBatchSize);
+        if (fresh) {
+            writeCheckpoint();
+        }
+    }
+
+    public static GroupCommitTaskManager load(File file, Duration maxDelay, int maxBatchSize) {
+        GroupCommitTaskManager manager = new GroupCommitTaskManager(file, maxDelay, maxBatchSize, false);
+        try {
+            TaskCheckpoint.restore(file, manager.wal, manager);
+        } catch (IOException | RuntimeException e) {
+            throw new ManagerReadFileException("Ошибка восстановления из журнала " + file, e);
+        }
+        return manager;
+    }
+
+    // Вызывается под блокировкой записи: записи попадают в очередь в том же порядке, что и изменения в памяти
+    @Override
+    protected void persist(List<? extends Task> changed, Collection<Integer> deleted) {
+        List<String> records = new ArrayList<>(changed.size() + deleted.size());
+        for (Task task : changed) {
+            records.add(TaskRecordCodec.put(task));
+        }
+        for (int id : deleted) {
+            records.add(TaskRecordCodec.delete(id));
+        }
+        pendingAck.set(commitLog.append(records));
+        if (wal.size() > checkpointThreshold) {
+            writeCheckpoint();
+        }
+    }
+
+    @Override
+    protected void afterWrite() {
+        CompletableFuture<Void> ack = pendingAck.get();
+        if (ack == null) {
+            return;
+        }
+        pendingAck.remove();
+        try {
+            ack.join();
+        } catch (CompletionException e) {
+            throw new ManagerSaveException("Ошибка записи в журнал изменений", e.getCause());
+        }
+    }
+
+    public void checkpoint() {
+        write(() -> {
+            writeCheckpoint();
+            return null;
+        });
+    }
+
+    public long getBatchCount() {
+        return commitLog.getBatchCount();
+    }
+
+    @Override
+    public void close() throws IOException {
+        commitLog.close();
+        wal.close();
+    }
+
+    // Записи, ещё не сброшенные писателем, после очистки журнала попадут в него снова;
+    // их повтор поверх снимка ничего не меняет, так как записи идемпотентны
+    private void writeCheckpoint() {
+        try {
+            int count = TaskCheckpoint.write(snapshotFile, this);
+            wal.reset();
+            checkpointThreshold = Math.max(MIN_CHECKPOINT_RECORDS, 2 * count);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка сохранения контрольной точки", e);
+        }
+    }
+}
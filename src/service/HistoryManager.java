@@ -9,4 +9,8 @@ public interface HistoryManager {
     void remove(int id);
     List<Task> getHistory();
 
+    // Применить отложенные изменения истории, если реализация их накапливает
+    default void flush() {
+    }
+
 }
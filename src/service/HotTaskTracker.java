@@ -0,0 +1,159 @@
+package service;
+
+import model.ViewCount;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Учёт самых читаемых задач в фиксированной памяти.
+// Частоты оцениваются скетчем count-min (depth строк по width счётчиков; оценка не меньше точной),
+// а k лидеров хранятся в атомарных слотах: id в старших 32 битах, оценка в младших. Запись просмотра -
+// depth атомарных инкрементов; лидер поднимает свою оценку CAS-ом по своему слоту без блокировки.
+// Монитор берётся только кандидатом в топ, ещё не входящим в него, с оценкой выше порога входа.
+public class HotTaskTracker {
+    private static final int DEPTH = 4;
+    private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+
+    private final AtomicIntegerArray counters;
+    private final int mask;
+    private final AtomicLongArray top;
+    private volatile int topSize;
+    private int minIndex; // Под монитором
+    private volatile int threshold; // Оценка, которую нужно превысить, чтобы попасть в заполненный топ
+
+    public HotTaskTracker(int width, int topK) {
+        if (width <= 0 || topK <= 0) {
+            throw new IllegalArgumentException("Sketch width and top size must be positive");
+        }
+        int columns = Integer.highestOneBit(width - 1) << 1;
+        if (columns <= 0) columns = 1;
+        this.mask = columns - 1;
+        this.counters = new AtomicIntegerArray(DEPTH * columns);
+        this.top = new AtomicLongArray(topK);
+    }
+
+    public void record(int id) {
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            int value = counters.incrementAndGet(row * (mask + 1) + column(id, row));
+            estimate = Math.min(estimate, value);
+        }
+        if (estimate > threshold && !raise(id, estimate)) {
+            updateTop(id, estimate);
+        }
+    }
+
+    public int estimate(int id) {
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            estimate = Math.min(estimate, counters.get(row * (mask + 1) + column(id, row)));
+        }
+        return estimate;
+    }
+
+    // Лидеры по убыванию оценки
+    public synchronized List<ViewCount> getTop(int limit) {
+        List<ViewCount> result = new ArrayList<>(topSize);
+        for (int i = 0; i < topSize; i++) {
+            long slot = top.get(i);
+            result.add(new ViewCount(idOf(slot), viewsOf(slot)));
+        }
+        result.sort((first, second) -> Integer.compare(second.getViews(), first.getViews()));
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+    // Удалённая задача больше не показывается среди лидеров; её счётчики в скетче остаются
+    public synchronized void remove(int id) {
+        for (int i = 0; i < topSize; i++) {
+            if (idOf(top.get(i)) == id) {
+                int last = topSize - 1;
+                top.set(i, top.get(last)); // Приращение последнего слота в этот момент может потеряться - это лишь оценка
+                topSize = last;
+                refreshThreshold();
+                return;
+            }
+        }
+    }
+
+    public synchronized void reset() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, 0);
+        }
+        topSize = 0;
+        refreshThreshold();
+    }
+
+    // Память скетча и топа в байтах
+    public long memoryUsage() {
+        return 16 + 4L * counters.length() + 16 + 8L * top.length();
+    }
+
+    // Без блокировки: если id уже среди лидеров, его оценка поднимается CAS-ом, пока слот за ним
+    private boolean raise(int id, int views) {
+        int size = topSize;
+        for (int i = 0; i < size; i++) {
+            long slot = top.get(i);
+            while (idOf(slot) == id) {
+                if (viewsOf(slot) >= views || top.compareAndSet(i, slot, pack(id, views))) {
+                    return true;
+                }
+                slot = top.get(i);
+            }
+        }
+        return false;
+    }
+
+    private synchronized void updateTop(int id, int views) {
+        if (raise(id, views)) { // Попал в топ, пока ждали монитор
+            return;
+        }
+        refreshThreshold(); // Оценки лидеров росли без блокировки
+        if (topSize < top.length()) {
+            top.set(topSize, pack(id, views));
+            topSize++;
+        } else {
+            // Вытесняем наименее популярного лидера; CAS не даст затереть его одновременное приращение
+            while (true) {
+                long weakest = top.get(minIndex);
+                if (views <= viewsOf(weakest)) {
+                    return;
+                }
+                if (top.compareAndSet(minIndex, weakest, pack(id, views))) {
+                    break;
+                }
+                refreshThreshold();
+            }
+        }
+        refreshThreshold();
+    }
+
+    private void refreshThreshold() {
+        minIndex = 0;
+        for (int i = 1; i < topSize; i++) {
+            if (viewsOf(top.get(i)) < viewsOf(top.get(minIndex))) minIndex = i;
+        }
+        threshold = topSize < top.length() ? 0 : viewsOf(top.get(minIndex));
+    }
+
+    private static long pack(int id, int views) {
+        return (long) id << 32 | (views & 0xFFFFFFFFL);
+    }
+
+    private static int idOf(long slot) {
+        return (int) (slot >>> 32);
+    }
+
+    private static int viewsOf(long slot) {
+        return (int) slot;
+    }
+
+    private int column(int id, int row) {
+        int hash = id * SEEDS[row];
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        return hash & mask;
+    }
+}
@@ -7,8 +7,22 @@ import java.util.List;
 import java.util.ArrayList;
 
 public class InMemoryHistoryManager implements HistoryManager {
+    public static final int UNBOUNDED = 0;
+
     private final CustomLinkedList historyManager = new CustomLinkedList(); // Используем кастомный связанный список
     private final HashMap<Integer, CustomLinkedList.Node> taskMap = new HashMap<>(); // Храним ссылки на узлы
+    private final int capacity; // Максимум задач в истории; UNBOUNDED - без ограничения
+
+    public InMemoryHistoryManager() {
+        this(UNBOUNDED);
+    }
+
+    public InMemoryHistoryManager(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("History capacity must not be negative");
+        }
+        this.capacity = capacity;
+    }
 
     @Override
     public void add(Task task) {
@@ -20,6 +34,13 @@ public class InMemoryHistoryManager implements HistoryManager {
         // Добавляем задачу в конец списка и получаем новый узел
         CustomLinkedList.Node newNode = historyManager.add(task);
         taskMap.put(task.getId(), newNode);
+
+        // При переполнении вытесняем самую давнюю просмотренную задачу (голову списка)
+        if (capacity != UNBOUNDED && taskMap.size() > capacity) {
+            CustomLinkedList.Node oldest = historyManager.getHead();
+            taskMap.remove(oldest.task.getId());
+            historyManager.remove(oldest);
+        }
     }
 
     @Override
@@ -32,7 +53,7 @@ public class InMemoryHistoryManager implements HistoryManager {
 
     @Override
     public List<Task> getHistory() {
-        List<Task> tasks = new ArrayList<>();
+        List<Task> tasks = new ArrayList<>(taskMap.size());
         CustomLinkedList.Node current = historyManager.getHead();
         while (current != null) {
             tasks.add(current.task);
@@ -40,4 +61,12 @@ public class InMemoryHistoryManager implements HistoryManager {
         }
         return tasks; // Возвращаем копию истории
     }
-}
\ No newline at end of file
+
+    public int size() {
+        return taskMap.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+}
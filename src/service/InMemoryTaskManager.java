@@ -4,25 +4,55 @@ import model.Epic;
 import model.Subtask;
 import model.Task;
 import model.TaskStatus;
+import model.TaskType;
+import model.TimeSlot;
+import model.ViewCount;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 public class InMemoryTaskManager implements TaskManager {
-    protected final HashMap<Integer, Task> tasks = new HashMap<>();
-    protected final HashMap<Integer, Subtask> subtasks = new HashMap<>();
-    protected final HashMap<Integer, Epic> epics = new HashMap<>();
-    protected final HistoryManager historyManager = Managers.getDefaultHistory();
+    protected final IntObjectHashMap<Task> tasks = new IntObjectHashMap<>();
+    protected final IntObjectHashMap<Subtask> subtasks = new IntObjectHashMap<>();
+    protected final IntObjectHashMap<Epic> epics = new IntObjectHashMap<>();
+    protected final HistoryManager historyManager;
     protected int idCounter = 1;
-    private final TreeSet<Task> prioritizedTasks = new TreeSet<>(Comparator.comparing(Task::getStartTime, Comparator.nullsLast(Comparator.naturalOrder())));
+    // Время начала, с которым задача лежит в prioritizedTasks. Задачу могут изменить на месте до вызова update,
+    // поэтому порядок и удаление опираются на сохранённое значение, как узлы IntervalTree
+    private static final LocalDateTime UNSCHEDULED = LocalDateTime.MAX; // Задачи без времени - в конце; null таблица не хранит
+    private final IntObjectHashMap<LocalDateTime> prioritizedStarts = new IntObjectHashMap<>();
+    // Порядок по времени начала; id различает задачи с одинаковым началом и позволяет искать по пробной задаче
+    private final TreeSet<Task> prioritizedTasks = new TreeSet<>(Comparator.comparing(this::prioritizedStart)
+            .thenComparingInt(Task::getId));
+    private final IntervalTree scheduleIndex = new IntervalTree(); // Индекс интервалов для проверки пересечений
+    // Индексы по статусу для фильтрации и подсчёта без обхода всех задач
+    private final StatusIndex<Task> taskStatuses = new StatusIndex<>();
+    private final StatusIndex<Subtask> subtaskStatuses = new StatusIndex<>();
+    private final StatusIndex<Epic> epicStatuses = new StatusIndex<>();
+    private final SearchIndex searchIndex = new SearchIndex(); // Полнотекстовый индекс по всем типам задач
+    private final HotTaskTracker hotTasks = new HotTaskTracker(4096, 32); // Частота просмотров в фиксированной памяти
+    // Неизменяемые снимки коллекций: пересобираются при первом чтении после изменения
+    private volatile List<Task> taskView;
+    private volatile List<Subtask> subtaskView;
+    private volatile List<Epic> epicView;
+    private volatile List<Task> prioritizedView;
+
+    public InMemoryTaskManager() {
+        this(Managers.getDefaultHistory());
+    }
+
+    public InMemoryTaskManager(HistoryManager historyManager) {
+        this.historyManager = historyManager;
+    }
 
     @Override
     public int createTask(Task task) {
         validateTask(task);
         task.setId(idCounter++);
-        tasks.put(task.getId(), task);
-        prioritizedTasks.add(task);
+        insertTask(task);
+        persist(List.of(task), List.of());
         return task.getId();
     }
 
@@ -35,16 +65,8 @@ public class InMemoryTaskManager implements TaskManager {
 
         validateTask(subtask);
         subtask.setId(idCounter++);
-        subtasks.put(subtask.getId(), subtask);
-        prioritizedTasks.add(subtask);
-
-        Epic epic = epics.get(subtask.getEpicId());
-        if (epic != null) {
-            epic.addSubtask(subtask.getId());
-            updateEpicStatus(epic.getId());
-        } else {
-            System.out.println("Warning: Epic with ID " + subtask.getEpicId() + " not found.");
-        }
+        insertSubtask(subtask);
+        persist(List.of(subtask), List.of());
         return subtask.getId();
     }
 
@@ -66,22 +88,257 @@ public class InMemoryTaskManager implements TaskManager {
     public void addToHistory(int taskId) {
         Task task = tasks.get(taskId);
         if (task != null) {
-            historyManager.add(task);
+            recordView(task);
         }
     }
 
     @Override
     public int createEpic(Epic epic) {
+        epic.clearSubtasks(); // Подзадачи привязываются только через createSubtask
         epic.setId(idCounter++);
-        epics.put(epic.getId(), epic);
+        insertEpic(epic);
+        persist(List.of(epic), List.of());
         return epic.getId(); // Возвращаем ID созданного эпика
     }
 
+    @Override
+    public List<Integer> createBatch(List<? extends Task> items) {
+        validateBatch(items, false);
+        List<Integer> ids = new ArrayList<>(items.size());
+        for (Task item : items) {
+            if (item instanceof Epic) {
+                Epic epic = (Epic) item;
+                epic.clearSubtasks();
+                epic.setId(idCounter++);
+                insertEpic(epic);
+            } else if (item instanceof Subtask) {
+                item.setId(idCounter++);
+                insertSubtask((Subtask) item);
+            } else {
+                item.setId(idCounter++);
+                insertTask(item);
+            }
+            ids.add(item.getId());
+        }
+        persist(items, List.of()); // Один раз на весь пакет
+        return ids;
+    }
+
+    @Override
+    public void updateBatch(List<? extends Task> items) {
+        validateBatch(items, true);
+        for (Task item : items) {
+            if (item instanceof Epic) {
+                replaceEpic((Epic) item);
+            } else if (item instanceof Subtask) {
+                replaceSubtask((Subtask) item);
+            } else {
+                replaceTask(item);
+            }
+        }
+        persist(items, List.of());
+    }
+
+    @Override
+    public int deleteBatch(Collection<Integer> ids) {
+        int deleted = 0;
+        for (int id : ids) {
+            if (removeById(id)) {
+                deleted++;
+            }
+        }
+        if (deleted > 0) {
+            persist(List.of(), ids);
+        }
+        return deleted;
+    }
+
+    // Удаление задачи любого типа по id
+    protected boolean removeById(int id) {
+        if (tasks.containsKey(id)) {
+            removeTask(id);
+        } else if (subtasks.containsKey(id)) {
+            removeSubtask(id);
+        } else if (epics.containsKey(id)) {
+            removeEpic(id);
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    // Вставка или замена с сохранённым id и без проверок пересечений: для восстановления сохранённого состояния.
+    // Эпик должен быть восстановлен раньше своих подзадач
+    protected void restore(Task item) {
+        if (item instanceof Epic) {
+            if (epics.containsKey(item.getId())) {
+                replaceEpic((Epic) item);
+            } else {
+                insertEpic((Epic) item);
+            }
+        } else if (item instanceof Subtask) {
+            if (subtasks.containsKey(item.getId())) {
+                replaceSubtask((Subtask) item);
+            } else {
+                insertSubtask((Subtask) item);
+            }
+        } else if (tasks.containsKey(item.getId())) {
+            replaceTask(item);
+        } else {
+            insertTask(item);
+        }
+        if (item.getId() >= idCounter) {
+            idCounter = item.getId() + 1;
+        }
+    }
+
+    // Массовое восстановление сохранённого состояния: исходные id, без проверки пересечений и без вызова persist.
+    // Эпики вставляются раньше остальных независимо от порядка в файле, статус каждого эпика пересчитывается один раз
+    protected void restoreAll(Collection<? extends Task> items) {
+        List<Subtask> restoredSubtasks = new ArrayList<>();
+        for (Task item : items) {
+            if (item instanceof Epic) {
+                restore(item);
+            }
+        }
+        for (Task item : items) {
+            if (item instanceof Subtask) {
+                restoredSubtasks.add((Subtask) item);
+            } else if (!(item instanceof Epic)) {
+                restore(item);
+            }
+        }
+        Set<Integer> touchedEpics = new HashSet<>();
+        for (Subtask subtask : restoredSubtasks) {
+            if (subtasks.containsKey(subtask.getId())) {
+                replaceSubtask(subtask);
+            } else {
+                insertSubtask(subtask, false);
+                touchedEpics.add(subtask.getEpicId());
+            }
+            if (subtask.getId() >= idCounter) {
+                idCounter = subtask.getId() + 1;
+            }
+        }
+        for (int epicId : touchedEpics) {
+            updateEpicStatus(epicId);
+        }
+    }
+
+    // Проверяет пакет целиком до применения: сортирует интервалы один раз, сверяет их между собой
+    // одним проходом и с текущим расписанием через индекс интервалов
+    private void validateBatch(List<? extends Task> items, boolean update) {
+        IntObjectHashMap<Task> batchIds = new IntObjectHashMap<>(items.size());
+        List<Task> scheduled = new ArrayList<>(items.size());
+        for (Task item : items) {
+            if (item == null) {
+                throw new IllegalArgumentException("Task cannot be null");
+            }
+            if (update) {
+                checkExists(item);
+                if (batchIds.put(item.getId(), item) != null) {
+                    throw new IllegalArgumentException("Batch contains duplicate id " + item.getId());
+                }
+            }
+            if (item instanceof Epic) {
+                continue; // Время эпика вычисляется по подзадачам
+            }
+            if (item instanceof Subtask && ((Subtask) item).getEpicId() == item.getId()) {
+                throw new IllegalArgumentException("Epic cannot be a subtask of itself.");
+            }
+            if (item.getStartTime() == null) {
+                throw new IllegalArgumentException("Task start time cannot be null");
+            }
+            scheduled.add(item);
+        }
+
+        scheduled.sort(Comparator.comparing(Task::getStartTime).thenComparing(IntervalTree::endOf));
+        LocalDateTime maxEnd = null;
+        for (Task item : scheduled) {
+            LocalDateTime end = IntervalTree.endOf(item);
+            if (maxEnd != null && item.getStartTime().isBefore(maxEnd)) {
+                throw new IllegalArgumentException("Batch contains overlapping tasks.");
+            }
+            if (maxEnd == null || end.isAfter(maxEnd)) {
+                maxEnd = end;
+            }
+            // При обновлении старые интервалы задач пакета будут заменены, поэтому не мешают
+            if (scheduleIndex.hasOverlap(item.getStartTime(), end, id -> update && batchIds.containsKey(id))) {
+                throw new IllegalArgumentException("New task overlaps with existing tasks.");
+            }
+        }
+    }
+
+    private void checkExists(Task item) {
+        if (item instanceof Epic) {
+            if (!epics.containsKey(item.getId())) throw new IllegalArgumentException("Invalid epic");
+        } else if (item instanceof Subtask) {
+            if (!subtasks.containsKey(item.getId())) throw new IllegalArgumentException("Invalid subtask");
+        } else if (!tasks.containsKey(item.getId())) {
+            throw new IllegalArgumentException("Invalid task");
+        }
+    }
+
+    // Вставка без проверок: вызывается после валидации
+    private void insertTask(Task task) {
+        tasks.put(task.getId(), task);
+        addPrioritized(task);
+        scheduleIndex.add(task);
+        taskStatuses.add(task);
+        searchIndex.add(task);
+        invalidateTaskViews();
+    }
+
+    private void insertSubtask(Subtask subtask) {
+        insertSubtask(subtask, true);
+    }
+
+    // refreshEpic = false откладывает пересчёт статуса эпика (массовое восстановление пересчитывает его один раз)
+    private void insertSubtask(Subtask subtask, boolean refreshEpic) {
+        subtasks.put(subtask.getId(), subtask);
+        addPrioritized(subtask);
+        scheduleIndex.add(subtask);
+        subtaskStatuses.add(subtask);
+        searchIndex.add(subtask);
+        invalidateSubtaskViews();
+
+        Epic epic = epics.get(subtask.getEpicId());
+        if (epic != null) {
+            epic.addSubtask(subtask);
+            if (refreshEpic) {
+                updateEpicStatus(epic.getId());
+            }
+        } else {
+            System.out.println("Warning: Epic with ID " + subtask.getEpicId() + " not found.");
+        }
+    }
+
+    private void insertEpic(Epic epic) {
+        epics.put(epic.getId(), epic);
+        epicStatuses.add(epic);
+        searchIndex.add(epic);
+        invalidateEpicViews();
+    }
+
+    // Все просмотры проходят здесь; наследники могут дополнительно сохранять их
+    protected void recordView(Task task) {
+        historyManager.add(task);
+        hotTasks.record(task.getId());
+    }
+
+    @Override
+    public List<ViewCount> getHotTasks(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit must not be negative");
+        }
+        return hotTasks.getTop(limit);
+    }
+
     @Override
     public Task getTaskById(int id) {
         Task task = tasks.get(id);
         if (task != null) {
-            historyManager.add(task);
+            recordView(task);
         }
         return task;
     }
@@ -90,7 +347,7 @@ public class InMemoryTaskManager implements TaskManager {
     public Subtask getSubtaskById(int id) {
         Subtask subtask = subtasks.get(id);
         if (subtask != null) {
-            historyManager.add(subtask);
+            recordView(subtask);
         }
         return subtask;
     }
@@ -99,32 +356,139 @@ public class InMemoryTaskManager implements TaskManager {
     public Epic getEpicById(int id) {
         Epic epic = epics.get(id);
         if (epic != null) {
-            historyManager.add(epic);
+            recordView(epic);
         }
         return epic;
     }
 
     @Override
     public List<Task> getAllTasks() {
-        return new ArrayList<>(tasks.values());
+        List<Task> view = taskView;
+        if (view == null) {
+            view = Collections.unmodifiableList(tasks.values());
+            taskView = view;
+        }
+        return view;
     }
 
     @Override
     public List<Subtask> getAllSubtasks() {
-        return new ArrayList<>(subtasks.values());
+        List<Subtask> view = subtaskView;
+        if (view == null) {
+            view = Collections.unmodifiableList(subtasks.values());
+            subtaskView = view;
+        }
+        return view;
     }
 
     @Override
     public List<Epic> getAllEpics() {
-        return new ArrayList<>(epics.values());
+        List<Epic> view = epicView;
+        if (view == null) {
+            view = Collections.unmodifiableList(epics.values());
+            epicView = view;
+        }
+        return view;
+    }
+
+    // Страницы читаются прямо из таблиц и дерева приоритетов: память на запрос O(limit),
+    // полный снимок коллекции не строится
+    @Override
+    public List<Task> getTasks(int offset, int limit) {
+        checkPageArguments(offset, limit);
+        return tasks.page(offset, limit);
+    }
+
+    @Override
+    public List<Subtask> getSubtasks(int offset, int limit) {
+        checkPageArguments(offset, limit);
+        return subtasks.page(offset, limit);
+    }
+
+    @Override
+    public List<Epic> getEpics(int offset, int limit) {
+        checkPageArguments(offset, limit);
+        return epics.page(offset, limit);
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(int offset, int limit) {
+        checkPageArguments(offset, limit);
+        List<Task> result = new ArrayList<>(Math.min(limit, Math.max(0, prioritizedTasks.size() - offset)));
+        Iterator<Task> iterator = prioritizedTasks.iterator();
+        for (int skipped = 0; skipped < offset && iterator.hasNext(); skipped++) {
+            iterator.next();
+        }
+        while (result.size() < limit && iterator.hasNext()) {
+            result.add(iterator.next());
+        }
+        return result;
+    }
+
+    @Override
+    public void forEachTask(Consumer<? super Task> action) {
+        tasks.forEachValue(action);
+    }
+
+    @Override
+    public void forEachSubtask(Consumer<? super Subtask> action) {
+        subtasks.forEachValue(action);
+    }
+
+    @Override
+    public void forEachEpic(Consumer<? super Epic> action) {
+        epics.forEachValue(action);
+    }
+
+    @Override
+    public void forEachPrioritizedTask(Consumer<? super Task> action) {
+        prioritizedTasks.forEach(action);
+    }
+
+    private static void checkPageArguments(int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Offset and limit must not be negative");
+        }
     }
 
     @Override
     public boolean deleteTask(int id) {
+        boolean deleted = removeTask(id);
+        if (deleted) {
+            persist(List.of(), List.of(id));
+        }
+        return deleted;
+    }
+
+    @Override
+    public void deleteSubtask(int id) {
+        if (removeSubtask(id)) {
+            persist(List.of(), List.of(id));
+        }
+    }
+
+    @Override
+    public void deleteEpic(int id) {
+        if (removeEpic(id)) {
+            persist(List.of(), List.of(id));
+        }
+    }
+
+    // Вызывается после каждого успешного изменения через публичные методы: changed - созданные и изменённые задачи,
+    // deleted - удалённые id. Точка расширения для хранилищ; в памяти сохранять нечего
+    protected void persist(List<? extends Task> changed, Collection<Integer> deleted) {
+    }
+
+    private boolean removeTask(int id) {
         System.out.println("Attempting to delete task with ID: " + id);
         Task task = tasks.remove(id);
         if (task != null) {
-            prioritizedTasks.remove(task);
+            removePrioritized(task);
+            scheduleIndex.remove(id);
+            taskStatuses.remove(id);
+            searchIndex.remove(id);
+            hotTasks.remove(id);
+            invalidateTaskViews();
             historyManager.remove(id);
             System.out.println("Task with ID " + id + " deleted successfully.");
             return true;
@@ -133,12 +497,16 @@ public class InMemoryTaskManager implements TaskManager {
         return false;
     }
 
-    @Override
-    public void deleteSubtask(int id) {
+    private boolean removeSubtask(int id) {
         System.out.println("Attempting to delete subtask with ID: " + id);
         Subtask subtask = subtasks.remove(id);
         if (subtask != null) {
-            prioritizedTasks.remove(subtask);
+            removePrioritized(subtask);
+            scheduleIndex.remove(id);
+            subtaskStatuses.remove(id);
+            searchIndex.remove(id);
+            hotTasks.remove(id);
+            invalidateSubtaskViews();
             Epic epic = epics.get(subtask.getEpicId());
             if (epic != null) {
                 epic.removeSubtask(id);
@@ -147,61 +515,66 @@ public class InMemoryTaskManager implements TaskManager {
             }
             historyManager.remove(id);
             System.out.println("Subtask with ID " + id + " deleted successfully.");
-        } else {
-            System.out.println("Subtask with ID " + id + " not found for deletion.");
+            return true;
         }
+        System.out.println("Subtask with ID " + id + " not found for deletion.");
+        return false;
     }
 
-    @Override
-    public void deleteEpic(int id) {
+    private boolean removeEpic(int id) {
         System.out.println("Attempting to delete epic with ID: " + id);
         Epic epic = epics.remove(id);
         if (epic != null) {
             for (int subtaskId : epic.getSubtaskIds()) {
                 Subtask subtask = subtasks.remove(subtaskId);
                 if (subtask != null) {
-                    prioritizedTasks.remove(subtask);
+                    removePrioritized(subtask);
+                    scheduleIndex.remove(subtaskId);
+                    subtaskStatuses.remove(subtaskId);
+                    searchIndex.remove(subtaskId);
+                    hotTasks.remove(subtaskId);
                     historyManager.remove(subtaskId);
                     System.out.println("Subtask with ID " + subtaskId + " deleted successfully from epic ID " + id + ".");
                 }
             }
+            epicStatuses.remove(id);
+            searchIndex.remove(id);
+            hotTasks.remove(id);
+            invalidateSubtaskViews();
+            invalidateEpicViews();
             historyManager.remove(id);
             System.out.println("Epic with ID " + id + " deleted successfully.");
-        } else {
-            System.out.println("Epic with ID " + id + " not found for deletion.");
+            return true;
         }
+        System.out.println("Epic with ID " + id + " not found for deletion.");
+        return false;
     }
 
     @Override
     public Optional<Task> getTaskById(Integer taskId) {
-        if (tasks.containsKey(taskId)) {
-            Task task = tasks.get(taskId);
-            historyManager.add(task);
-            return Optional.of(task);
+        Task task = taskId != null ? tasks.get(taskId) : null;
+        if (task != null) {
+            recordView(task);
         }
-        return Optional.empty();
+        return Optional.ofNullable(task);
     }
 
     @Override
     public Optional<Epic> getEpicById(Integer epicId) {
-        if (epics.containsKey(epicId)) {
-            Epic epic = epics.get(epicId);
-            Epic taskForHistory = new Epic(epic.getId(), epic.getName(), epic.getStatus(), epic.getDescription(), null);
-            historyManager.add(taskForHistory);
-            return Optional.of(epic);
+        Epic epic = epicId != null ? epics.get(epicId) : null;
+        if (epic != null) {
+            recordView(epic); // В историю попадает сам объект, как и в getEpicById(int)
         }
-        return Optional.empty();
+        return Optional.ofNullable(epic);
     }
 
     @Override
     public Optional<Subtask> getSubtaskById(Integer subtaskId) {
-        if (subtasks.containsKey(subtaskId)) {
-            Subtask subtask = subtasks.get(subtaskId);
-            Subtask taskForHistory = new Subtask(subtask.getId(), subtask.getName(), subtask.getStatus(), subtask.getDescription(), subtask.getEpicId());
-            historyManager.add(taskForHistory);
-            return Optional.of(subtask);
+        Subtask subtask = subtaskId != null ? subtasks.get(subtaskId) : null;
+        if (subtask != null) {
+            recordView(subtask);
         }
-        return Optional.empty();
+        return Optional.ofNullable(subtask);
     }
 
     @Override
@@ -212,18 +585,33 @@ public class InMemoryTaskManager implements TaskManager {
             throw new IllegalArgumentException("Invalid subtask");
         }
 
-        Subtask oldSubtask = subtasks.get(subtask.getId());
+        if (isTaskOverlapping(subtask)) {
+            System.out.println("Updated subtask overlaps with existing tasks: " + subtask);
+            throw new IllegalArgumentException("Updated subtask overlaps with existing tasks.");
+        }
+
+        replaceSubtask(subtask);
+        persist(List.of(subtask), List.of());
+    }
 
-        if (!oldSubtask.getStartTime().equals(subtask.getStartTime()) || !oldSubtask.getDuration().equals(subtask.getDuration())) {
-            if (isTaskOverlapping(subtask)) {
-                System.out.println("Updated subtask overlaps with existing tasks: " + subtask);
-                throw new IllegalArgumentException("Updated subtask overlaps with existing tasks.");
+    private void replaceSubtask(Subtask subtask) {
+        Subtask oldSubtask = subtasks.put(subtask.getId(), subtask);
+        removePrioritized(oldSubtask);
+        addPrioritized(subtask);
+        scheduleIndex.add(subtask);
+        subtaskStatuses.add(subtask);
+        searchIndex.add(subtask);
+        invalidateSubtaskViews();
+        if (oldSubtask.getEpicId() != subtask.getEpicId()) {
+            Epic oldEpic = epics.get(oldSubtask.getEpicId());
+            if (oldEpic != null) {
+                oldEpic.removeSubtask(subtask.getId());
+                updateEpicStatus(oldEpic.getId());
             }
         }
-
-        subtasks.put(subtask.getId(), subtask);
         Epic epic = epics.get(subtask.getEpicId());
         if (epic != null) {
+            epic.addSubtask(subtask);
             updateEpicStatus(epic.getId());
             System.out.println("Subtask with ID " + subtask.getId() + " updated successfully.");
         }
@@ -237,84 +625,272 @@ public class InMemoryTaskManager implements TaskManager {
             throw new IllegalArgumentException("Invalid task");
         }
 
-        Task oldTask = tasks.get(task.getId());
-
-        if (!oldTask.getStartTime().equals(task.getStartTime()) || !oldTask.getDuration().equals(task.getDuration())) {
-            if (isTaskOverlapping(task)) {
-                throw new IllegalArgumentException("Updated task overlaps with existing tasks.");
-            }
+        if (isTaskOverlapping(task)) {
+            throw new IllegalArgumentException("Updated task overlaps with existing tasks.");
         }
 
-        tasks.put(task.getId(), task);
-        prioritizedTasks.add(task);
+        replaceTask(task);
+        persist(List.of(task), List.of());
         return true;
     }
 
+    private void replaceTask(Task task) {
+        Task oldTask = tasks.put(task.getId(), task);
+        removePrioritized(oldTask);
+        addPrioritized(task);
+        scheduleIndex.add(task);
+        taskStatuses.add(task);
+        searchIndex.add(task);
+        invalidateTaskViews();
+    }
+
     @Override
     public void updateEpic(Epic epic) {
         if (epic == null || epic.getId() <= 0 || !epics.containsKey(epic.getId())) {
             throw new IllegalArgumentException("Invalid epic");
         }
+        replaceEpic(epic);
+        persist(List.of(epic), List.of());
+    }
+
+    private void replaceEpic(Epic epic) {
+        Epic oldEpic = epics.get(epic.getId());
+        if (oldEpic != epic) {
+            epic.copySubtasksFrom(oldEpic); // Состав эпика определяется менеджером, а не клиентом
+        }
         epics.put(epic.getId(), epic);
+        searchIndex.add(epic);
+        invalidateEpicViews();
         updateEpicStatus(epic.getId());
     }
 
 
+    // Оценка памяти, занимаемой таблицами хранилища (без самих задач)
+    public long getStorageMemoryUsage() {
+        return tasks.memoryUsage() + subtasks.memoryUsage() + epics.memoryUsage();
+    }
+
     @Override
     public List<Task> getHistory() {
+        historyManager.flush(); // Видны все просмотры, сделанные до запроса истории
         return historyManager.getHistory();
     }
 
     public List<Task> getPrioritizedTasks() {
-        return new ArrayList<>(prioritizedTasks);
+        List<Task> view = prioritizedView;
+        if (view == null) {
+            view = Collections.unmodifiableList(new ArrayList<>(prioritizedTasks));
+            prioritizedView = view;
+        }
+        return view;
+    }
+
+    // Диапазонные запросы по времени начала работают с представлениями TreeSet: O(log n + k)
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to, int limit) {
+        checkRangeArguments(from, limit);
+        if (to == null) { // Диапазон без конца, как в HTTP-обработчике без параметра to
+            return take(prioritizedTasks.tailSet(probe(from), true), limit);
+        }
+        if (!from.isBefore(to)) {
+            return new ArrayList<>();
+        }
+        return take(prioritizedTasks.subSet(probe(from), true, probe(to), false), limit);
+    }
+
+    @Override
+    public List<Task> getTasksStartingFrom(LocalDateTime from, int limit) {
+        checkRangeArguments(from, limit);
+        return take(prioritizedTasks.tailSet(probe(from), true), limit);
+    }
+
+    @Override
+    public List<Task> getTasksStartingBefore(LocalDateTime before, int limit) {
+        checkRangeArguments(before, limit);
+        List<Task> result = take(prioritizedTasks.headSet(probe(before), false).descendingSet(), limit);
+        Collections.reverse(result); // Ближайшие к before задачи, но в хронологическом порядке
+        return result;
+    }
+
+    private static List<Task> take(NavigableSet<Task> range, int limit) {
+        List<Task> result = new ArrayList<>(Math.min(limit, 16));
+        for (Task task : range) {
+            if (result.size() >= limit || task.getStartTime() == null) break;
+            result.add(task);
+        }
+        return result;
+    }
+
+    private static void checkRangeArguments(LocalDateTime time, int limit) {
+        if (time == null || limit < 0) {
+            throw new IllegalArgumentException("Time is required and limit must not be negative");
+        }
+    }
+
+    @Override
+    public TimeSlot findFreeSlot(LocalDateTime after, Duration duration) {
+        checkSlotArguments(after, duration);
+        LocalDateTime cursor = freeFrom(after);
+        for (Task task : prioritizedTasks.tailSet(probe(after), true)) {
+            if (task.getStartTime() == null) break; // Задачи без времени лежат в конце
+            if (!cursor.plus(duration).isAfter(task.getStartTime())) {
+                break; // Промежуток до начала задачи вмещает запрошенную длительность
+            }
+            cursor = later(cursor, IntervalTree.endOf(task));
+        }
+        return new TimeSlot(cursor, cursor.plus(duration));
+    }
+
+    @Override
+    public List<TimeSlot> findFreeSlots(LocalDateTime from, LocalDateTime to, Duration minDuration, int limit) {
+        checkSlotArguments(from, minDuration);
+        if (to == null || !from.isBefore(to) || limit < 0) {
+            throw new IllegalArgumentException("Range end must be after its start and limit must not be negative");
+        }
+        List<TimeSlot> slots = new ArrayList<>();
+        LocalDateTime cursor = freeFrom(from);
+        for (Task task : prioritizedTasks.tailSet(probe(from), true)) {
+            if (slots.size() >= limit || task.getStartTime() == null || !task.getStartTime().isBefore(to)) {
+                break;
+            }
+            if (Duration.between(cursor, task.getStartTime()).compareTo(minDuration) >= 0) {
+                slots.add(new TimeSlot(cursor, task.getStartTime()));
+            }
+            cursor = later(cursor, IntervalTree.endOf(task));
+        }
+        if (slots.size() < limit && Duration.between(cursor, to).compareTo(minDuration) >= 0) {
+            slots.add(new TimeSlot(cursor, to));
+        }
+        return slots;
+    }
+
+    private static void checkSlotArguments(LocalDateTime time, Duration duration) {
+        if (time == null || duration == null || duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException("Start time and a positive duration are required");
+        }
+    }
+
+    // Первый свободный момент не раньше time: любая задача, начавшаяся раньше, могла ещё не закончиться.
+    // Ближайшей предыдущей мало - восстановленные интервалы могут вкладываться друг в друга
+    private LocalDateTime freeFrom(LocalDateTime time) {
+        return later(time, scheduleIndex.maxEndBefore(time));
+    }
+
+    private static LocalDateTime later(LocalDateTime first, LocalDateTime second) {
+        return second != null && second.isAfter(first) ? second : first;
+    }
+
+    private void addPrioritized(Task task) {
+        prioritizedStarts.put(task.getId(), task.getStartTime() != null ? task.getStartTime() : UNSCHEDULED);
+        prioritizedTasks.add(task);
+    }
+
+    // Узел находится по сохранённому началу задачи с тем же id, даже если объект уже изменён
+    private void removePrioritized(Task task) {
+        prioritizedTasks.remove(task);
+        prioritizedStarts.remove(task.getId());
+    }
+
+    private LocalDateTime prioritizedStart(Task task) {
+        LocalDateTime stored = prioritizedStarts.get(task.getId());
+        if (stored != null) {
+            return stored;
+        }
+        return task.getStartTime() != null ? task.getStartTime() : UNSCHEDULED; // Пробная или ещё не добавленная задача
+    }
+
+    // Пробная задача для поиска в prioritizedTasks: предшествует всем задачам с тем же началом
+    private static Task probe(LocalDateTime startTime) {
+        return new Task(Integer.MIN_VALUE, null, null, (TaskStatus) null, null, startTime);
     }
 
     @Override
     public List<Subtask> getSubtasksByEpicId(int epicId) {
         List<Subtask> subtasksByEpicId = new ArrayList<>();
-        for (Subtask subtask : subtasks.values()) {
-            if (subtask.getEpicId() == epicId) {
+        Epic epic = epics.get(epicId);
+        if (epic == null) {
+            return subtasksByEpicId;
+        }
+        for (int subtaskId : epic.getSubtaskIds()) {
+            Subtask subtask = subtasks.get(subtaskId);
+            if (subtask != null) {
                 subtasksByEpicId.add(subtask);
             }
         }
         return subtasksByEpicId;
     }
 
+    private void invalidateTaskViews() {
+        taskView = null;
+        prioritizedView = null;
+    }
+
+    private void invalidateSubtaskViews() {
+        subtaskView = null;
+        prioritizedView = null;
+    }
+
+    private void invalidateEpicViews() {
+        epicView = null;
+    }
+
     private void updateEpicStatus(int epicId) {
         Epic epic = epics.get(epicId);
         if (epic == null) return;
 
-        List<Subtask> epicSubtasks = getAllSubtasksByEpicId(epicId);
-        if (epicSubtasks.isEmpty()) {
-            epic.setStatus(TaskStatus.NEW);
-        } else if (epicSubtasks.stream().allMatch(subtask -> subtask.getStatus() == TaskStatus.DONE)) {
-            epic.setStatus(TaskStatus.DONE);
-        } else if (epicSubtasks.stream().allMatch(subtask -> subtask.getStatus() == TaskStatus.NEW)) {
-            epic.setStatus(TaskStatus.NEW);
-        } else {
-            epic.setStatus(TaskStatus.IN_PROGRESS);
+        epic.setStatus(epic.calculateStatus());
+        epicStatuses.add(epic);
+    }
+
+    @Override
+    public List<Task> search(String query, int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit must not be negative");
         }
+        return searchIndex.search(query, limit);
     }
 
-    private List<Subtask> getAllSubtasksByEpicId(int epicId) {
-        return subtasks.values().stream()
-                .filter(subtask -> subtask.getEpicId() == epicId)
-                .collect(Collectors.toList());
+    @Override
+    public List<Task> getTasksByStatus(TaskStatus status) {
+        return taskStatuses.get(status);
     }
 
-    private boolean isTaskOverlapping(Task newTask) {
-        for (Task existingTask : prioritizedTasks) {
-            if (existingTask.getId() != newTask.getId()) {
-                LocalDateTime existingStart = existingTask.getStartTime();
-                LocalDateTime existingEnd = existingStart.plus(existingTask.getDuration());
-                LocalDateTime newStart = newTask.getStartTime();
-                LocalDateTime newEnd = newStart.plus(newTask.getDuration());
-
-                if (newStart.isBefore(existingEnd) && existingStart.isBefore(newEnd) ) {
-                    return true;
-                }
-            }
+    @Override
+    public List<Subtask> getSubtasksByStatus(TaskStatus status) {
+        return subtaskStatuses.get(status);
+    }
+
+    @Override
+    public List<Epic> getEpicsByStatus(TaskStatus status) {
+        return epicStatuses.get(status);
+    }
+
+    @Override
+    public int getStatusCount(TaskType type, TaskStatus status) {
+        if (type == null || status == null) {
+            throw new IllegalArgumentException("Task type and status are required");
         }
-        return false;
+        switch (type) {
+            case TASK:
+                return taskStatuses.count(status);
+            case SUBTASK:
+                return subtaskStatuses.count(status);
+            case EPIC:
+                return epicStatuses.count(status);
+            default:
+                throw new IllegalArgumentException("Unknown task type: " + type);
+        }
+    }
+
+    @Override
+    public List<Task> getOverlappingTasks(Task task) {
+        if (task == null) {
+            return new ArrayList<>();
+        }
+        return scheduleIndex.findOverlapping(task.getStartTime(), IntervalTree.endOf(task), task.getId());
+    }
+
+    private boolean isTaskOverlapping(Task newTask) {
+        return scheduleIndex.hasOverlap(newTask.getStartTime(), IntervalTree.endOf(newTask), newTask.getId());
     }
 }
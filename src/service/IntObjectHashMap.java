@@ -0,0 +1,217 @@
+package service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+// Хеш-таблица с открытой адресацией и примитивными int-ключами.
+// В отличие от HashMap<Integer, V> не упаковывает ключи и не создаёт узел на каждую запись:
+// ключи и значения лежат в двух параллельных массивах, коллизии разрешаются линейным пробированием.
+// Свободная ячейка помечается значением null, поэтому null в качестве значения не допускается.
+public class IntObjectHashMap<V> implements Iterable<V> {
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.7f;
+
+    private int[] keys;
+    private Object[] values;
+    private int size;
+    private int threshold;
+
+    public IntObjectHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public IntObjectHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(DEFAULT_CAPACITY, (int) (expectedSize / LOAD_FACTOR) + 1) - 1) << 1;
+        allocate(capacity);
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int mask = keys.length - 1;
+        for (int slot = slot(key, mask); values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return (V) values[slot];
+            }
+        }
+        return null;
+    }
+
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Null values are not supported");
+        }
+        int mask = keys.length - 1;
+        int slot = slot(key, mask);
+        while (values[slot] != null) {
+            if (keys[slot] == key) {
+                V previous = (V) values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > threshold) {
+            resize(keys.length << 1);
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        int mask = keys.length - 1;
+        int slot = slot(key, mask);
+        while (values[slot] != null) {
+            if (keys[slot] == key) {
+                V previous = (V) values[slot];
+                shiftBack(slot, mask);
+                size--;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    // Копия значений в порядке обхода таблицы
+    public List<V> values() {
+        List<V> result = new ArrayList<>(size);
+        forEachValue(result::add);
+        return result;
+    }
+
+    // Не более limit значений начиная с позиции offset в порядке обхода таблицы; копируются только они
+    @SuppressWarnings("unchecked")
+    public List<V> page(int offset, int limit) {
+        List<V> result = new ArrayList<>(Math.min(limit, Math.max(0, size - offset)));
+        Object[] table = values;
+        int skipped = 0;
+        for (int slot = 0; slot < table.length && result.size() < limit; slot++) {
+            if (table[slot] != null && skipped++ >= offset) {
+                result.add((V) table[slot]);
+            }
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEachValue(Consumer<? super V> action) {
+        Object[] table = values;
+        for (Object value : table) {
+            if (value != null) {
+                action.accept((V) value);
+            }
+        }
+    }
+
+    @Override
+    public Iterator<V> iterator() {
+        return new Iterator<>() {
+            private int next = advance(0);
+
+            private int advance(int from) {
+                while (from < values.length && values[from] == null) {
+                    from++;
+                }
+                return from;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next < values.length;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public V next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                V value = (V) values[next];
+                next = advance(next + 1);
+                return value;
+            }
+        };
+    }
+
+    // Оценка занимаемой таблицей памяти в байтах (без самих значений), при сжатых ссылках
+    public long memoryUsage() {
+        long arrayHeader = 16;
+        return 32 + arrayHeader + 4L * keys.length + arrayHeader + 4L * values.length;
+    }
+
+    public int capacity() {
+        return keys.length;
+    }
+
+    // Ключи задач последовательные, поэтому достаточно младших битов: как и у HashMap<Integer>,
+    // последовательные id раскладываются без коллизий и обходятся по возрастанию
+    private static int slot(int key, int mask) {
+        return (key ^ (key >>> 16)) & mask;
+    }
+
+    // Удаление без "надгробий": сдвигаем назад элементы цепочки, которые иначе стали бы недостижимы
+    private void shiftBack(int freed, int mask) {
+        int slot = freed;
+        while (true) {
+            slot = (slot + 1) & mask;
+            if (values[slot] == null) {
+                break;
+            }
+            int home = slot(keys[slot], mask);
+            boolean reachable = freed <= slot ? (freed < home && home <= slot) : (freed < home || home <= slot);
+            if (!reachable) {
+                keys[freed] = keys[slot];
+                values[freed] = values[slot];
+                freed = slot;
+            }
+        }
+        values[freed] = null;
+    }
+
+    private void resize(int newCapacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(newCapacity);
+        int mask = newCapacity - 1;
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                int slot = slot(oldKeys[i], mask);
+                while (values[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        threshold = (int) (capacity * LOAD_FACTOR);
+    }
+}
@@ -0,0 +1,243 @@
+package service;
+
+import model.Task;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+// Индекс интервалов [start, end) на основе AVL-дерева, дополненного максимальным концом поддерева.
+// Проверка пересечения стоит O(log n + k) вместо полного обхода расписания.
+public class IntervalTree {
+    private Node root;
+    // Ключ узла хранится копией, поэтому задачу можно удалить даже после её изменения
+    private final IntObjectHashMap<Node> nodesById = new IntObjectHashMap<>();
+
+    public void add(Task task) {
+        if (task == null) return;
+        remove(task.getId());
+        LocalDateTime start = task.getStartTime();
+        if (start == null) return; // Задачи без времени в расписании не участвуют
+
+        Node node = new Node(task, start, endOf(task));
+        root = insert(root, node);
+        nodesById.put(task.getId(), node);
+    }
+
+    public void remove(int id) {
+        Node node = nodesById.remove(id);
+        if (node != null) {
+            root = delete(root, node.start, node.id);
+        }
+    }
+
+    public boolean hasOverlap(LocalDateTime start, LocalDateTime end, int excludeId) {
+        return hasOverlap(start, end, id -> id == excludeId);
+    }
+
+    // Пересечение с любым интервалом, кроме задач, отбракованных фильтром ignored
+    public boolean hasOverlap(LocalDateTime start, LocalDateTime end, IntPredicate ignored) {
+        return start != null && findFirst(root, start, end, ignored) != null;
+    }
+
+    public List<Task> findOverlapping(LocalDateTime start, LocalDateTime end, int excludeId) {
+        List<Task> result = new ArrayList<>();
+        if (start != null) {
+            collect(root, start, end, excludeId, result);
+        }
+        return result;
+    }
+
+    // Наибольший конец среди интервалов, начавшихся раньше time, или null; O(log n) по maxEnd поддеревьев.
+    // Берутся сохранённые в узлах границы, а не текущие поля задач
+    public LocalDateTime maxEndBefore(LocalDateTime time) {
+        LocalDateTime result = null;
+        Node node = root;
+        while (node != null) {
+            if (node.start.isBefore(time)) {
+                // Узел и всё его левое поддерево начинаются раньше time
+                result = later(result, node.end);
+                if (node.left != null) result = later(result, node.left.maxEnd);
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        return nodesById.size();
+    }
+
+    public void clear() {
+        root = null;
+        nodesById.clear();
+    }
+
+    // Конец интервала; задача без длительности считается точкой
+    public static LocalDateTime endOf(Task task) {
+        LocalDateTime start = task.getStartTime();
+        if (start == null || task.getDuration() == null) {
+            return start;
+        }
+        return start.plus(task.getDuration());
+    }
+
+    private static LocalDateTime later(LocalDateTime first, LocalDateTime second) {
+        return first == null || second.isAfter(first) ? second : first;
+    }
+
+    private static boolean overlaps(Node node, LocalDateTime start, LocalDateTime end) {
+        return node.start.isBefore(end) && start.isBefore(node.end);
+    }
+
+    private Node findFirst(Node node, LocalDateTime start, LocalDateTime end, IntPredicate ignored) {
+        while (node != null) {
+            if (!start.isBefore(node.maxEnd)) {
+                return null; // Все интервалы поддерева заканчиваются до начала искомого
+            }
+            if (node.left != null && start.isBefore(node.left.maxEnd)) {
+                Node found = findFirst(node.left, start, end, ignored);
+                if (found != null) return found;
+            }
+            if (!ignored.test(node.id) && overlaps(node, start, end)) {
+                return node;
+            }
+            if (!node.start.isBefore(end)) {
+                return null; // Правее лежат только интервалы, начинающиеся позже конца искомого
+            }
+            node = node.right;
+        }
+        return null;
+    }
+
+    private void collect(Node node, LocalDateTime start, LocalDateTime end, int excludeId, List<Task> result) {
+        if (node == null || !start.isBefore(node.maxEnd)) {
+            return;
+        }
+        collect(node.left, start, end, excludeId, result);
+        if (node.id != excludeId && overlaps(node, start, end)) {
+            result.add(node.task);
+        }
+        if (node.start.isBefore(end)) {
+            collect(node.right, start, end, excludeId, result);
+        }
+    }
+
+    private static int compare(LocalDateTime start, int id, Node node) {
+        int result = start.compareTo(node.start);
+        return result != 0 ? result : Integer.compare(id, node.id);
+    }
+
+    private Node insert(Node node, Node newNode) {
+        if (node == null) {
+            return newNode;
+        }
+        if (compare(newNode.start, newNode.id, node) < 0) {
+            node.left = insert(node.left, newNode);
+        } else {
+            node.right = insert(node.right, newNode);
+        }
+        return balance(node);
+    }
+
+    private Node delete(Node node, LocalDateTime start, int id) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(start, id, node);
+        if (cmp < 0) {
+            node.left = delete(node.left, start, id);
+        } else if (cmp > 0) {
+            node.right = delete(node.right, start, id);
+        } else {
+            if (node.left == null) return node.right;
+            if (node.right == null) return node.left;
+            Node successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            successor.right = deleteMin(node.right);
+            successor.left = node.left;
+            return balance(successor);
+        }
+        return balance(node);
+    }
+
+    private Node deleteMin(Node node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = deleteMin(node.left);
+        return balance(node);
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static void update(Node node) {
+        node.height = Math.max(height(node.left), height(node.right)) + 1;
+        LocalDateTime maxEnd = node.end;
+        if (node.left != null && node.left.maxEnd.isAfter(maxEnd)) maxEnd = node.left.maxEnd;
+        if (node.right != null && node.right.maxEnd.isAfter(maxEnd)) maxEnd = node.right.maxEnd;
+        node.maxEnd = maxEnd;
+    }
+
+    private static Node balance(Node node) {
+        update(node);
+        int factor = height(node.left) - height(node.right);
+        if (factor > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (factor < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node left = node.left;
+        node.left = left.right;
+        left.right = node;
+        update(node);
+        update(left);
+        return left;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node right = node.right;
+        node.right = right.left;
+        right.left = node;
+        update(node);
+        update(right);
+        return right;
+    }
+
+    private static class Node {
+        final Task task;
+        final int id;
+        final LocalDateTime start;
+        final LocalDateTime end;
+        LocalDateTime maxEnd;
+        int height = 1;
+        Node left;
+        Node right;
+
+        Node(Task task, LocalDateTime start, LocalDateTime end) {
+            this.task = task;
+            this.id = task.getId();
+            this.start = start;
+            this.end = end;
+            this.maxEnd = end;
+        }
+    }
+}
@@ -1,12 +1,65 @@
 package service;
 
+import java.io.File;
+import java.time.Duration;
+
 public class Managers {
     // Метод для получения стандартного экземпляра TaskManager
     public static TaskManager getDefault() {
         return new InMemoryTaskManager(); // Возвращает стандартный экземпляр
     }
 
+    // Потокобезопасный менеджер для сервера с многопоточным обработчиком запросов
+    public static TaskManager getConcurrent() {
+        return new ConcurrentTaskManager();
+    }
+
     public static HistoryManager getDefaultHistory() {
         return new InMemoryHistoryManager(); // Возвращает стандартный экземпляр HistoryManager
     }
+
+    // История, хранящая не более capacity последних просмотренных задач
+    public static HistoryManager getDefaultHistory(int capacity) {
+        return new InMemoryHistoryManager(capacity);
+    }
+
+    // Отдельная история для каждой сессии HTTP-клиента (заголовок X-Session-Id)
+    public static HistoryManager getSessionHistory(int historyCapacity, int maxSessions, Duration idleTimeout) {
+        return new SessionHistoryManager(historyCapacity, maxSessions, idleTimeout);
+    }
+
+    // Запись просмотров в фоновом потоке: чтение задач не меняет историю синхронно
+    public static HistoryManager getAsyncHistory(HistoryManager delegate) {
+        return new AsyncHistoryManager(delegate);
+    }
+
+    // Хранение в двоичном снимке; CSV доступен через exportCsv и BinaryFileTaskManager.importCsv
+    public static TaskManager getBinaryFileBacked(File file) {
+        return BinaryFileTaskManager.load(file);
+    }
+
+    // Старт с двоичного снимка через отображение файла в память: задачи доступны по id сразу, остальное - после наполнения
+    public static TaskManager getMapped(File file) {
+        return MappedSnapshotTaskManager.open(file);
+    }
+
+    // Хранение в файле с журналом изменений: запись стоит O(1), состояние восстанавливается из снимка и журнала
+    public static TaskManager getWalBacked(File file) {
+        return WalTaskManager.load(file);
+    }
+
+    // Групповая фиксация: изменения из разных потоков сбрасываются на диск общими пачками
+    public static TaskManager getGroupCommit(File file, Duration maxDelay, int maxBatchSize) {
+        return GroupCommitTaskManager.load(file, maxDelay, maxBatchSize);
+    }
+
+    // Фоновые снимки: изменения только помечают состояние несохранённым, файл пишет отдельный поток
+    public static TaskManager getSnapshotting(File file, Duration interval, long dirtyThreshold) {
+        return SnapshotTaskManager.load(file, interval, dirtyThreshold);
+    }
+
+    // История на кольцевом буфере: без выделения памяти на каждый просмотр
+    public static HistoryManager getRingBufferHistory(int capacity) {
+        return new RingBufferHistoryManager(capacity);
+    }
 }
@@ -0,0 +1,410 @@
+package service;
+
+import exceptions.ManagerReadFileException;
+import exceptions.ManagerSaveException;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+// Быстрый старт с двоичного снимка (см. BinarySnapshotCodec): файл отображается в память только для чтения,
+// при открытии проверяется лишь заголовок, поэтому открытие не зависит от размера файла.
+// Фоновый поток проверяет контрольную сумму тела и наполняет менеджер пачками записей; повторяющиеся id
+// в снимке считаются повреждением. До конца наполнения задача и подзадача по id декодируются при первом
+// обращении под блокировкой чтения: индекс id -> смещение достраивается просмотром записей дальше
+// уже наполненной части. Остальные операции (списки, поиск, эпики, изменения) ждут окончания наполнения,
+// так как им нужно полное состояние.
+// После наполнения изменения сохраняются как в SnapshotTaskManager: через SnapshotShadow, с кодированием
+// и записью снимка в фоновом потоке без блокировки менеджера, раз в interval или по порогу изменений.
+public class MappedSnapshotTaskManager extends ConcurrentTaskManager implements Closeable {
+    private static final int HYDRATION_BATCH = 1024;
+    private static final int MISSING = -1;
+    private static final Duration SNAPSHOT_INTERVAL = Duration.ofSeconds(1);
+    private static final long DIRTY_THRESHOLD = 1024;
+
+    private final File file;
+    private final CountDownLatch hydration = new CountDownLatch(1);
+    private volatile boolean hydrated;
+    private volatile RuntimeException hydrationFailure;
+    private ByteBuffer snapshot; // Тело снимка; после наполнения отпускается
+    private int count; // Число записей по заголовку
+    private int bodyCrc;
+    private int hydratedCount; // Записи до hydratedPosition уже в таблицах; меняются под блокировкой записи
+    private int hydratedPosition;
+    private Thread hydrator;
+
+    // Под монитором loaded: декодированные по требованию записи, ещё не добавленные наполнителем
+    // (он вставит именно эти объекты), и лениво достраиваемый индекс id -> смещение записи в теле снимка
+    private final IntObjectHashMap<Task> loaded = new IntObjectHashMap<>();
+    private IntIntHashMap offsets = new IntIntHashMap(16, MISSING);
+    private int scannedCount;
+    private int scannedPosition;
+
+    private final long intervalNanos;
+    private final long dirtyThreshold;
+    private final AtomicLong changes = new AtomicLong(); // Номер последнего изменения
+    private final Thread snapshotter;
+    private volatile long savedChanges; // Номер изменения, вошедшего в последний снимок
+    private volatile boolean running = true;
+    private volatile ManagerSaveException lastFailure;
+    private final SnapshotShadow shadow = new SnapshotShadow();
+    private final boolean seedShadowFromFile; // Копия для снимков заполняется из файла перед первой его перезаписью
+    private boolean shadowSeeded; // Под монитором snapshot()
+
+    private MappedSnapshotTaskManager(File file, Duration interval, long dirtyThreshold) {
+        super(Managers.getDefaultHistory());
+        if (interval == null || interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("Интервал снимков должен быть положительным");
+        }
+        if (dirtyThreshold <= 0) {
+            throw new IllegalArgumentException("Порог изменений должен быть положительным");
+        }
+        this.file = file;
+        this.seedShadowFromFile = file.exists();
+        this.intervalNanos = interval.toNanos();
+        this.dirtyThreshold = dirtyThreshold;
+        this.snapshotter = new Thread(this::snapshotLoop, "mapped-snapshotter");
+        snapshotter.setDaemon(true);
+        snapshotter.start();
+    }
+
+    public static MappedSnapshotTaskManager open(File file) {
+        return open(file, SNAPSHOT_INTERVAL, DIRTY_THRESHOLD);
+    }
+
+    public static MappedSnapshotTaskManager open(File file, Duration interval, long dirtyThreshold) {
+        MappedSnapshotTaskManager manager = new MappedSnapshotTaskManager(file, interval, dirtyThreshold);
+        if (!file.exists()) {
+            manager.finishHydration(null);
+            return manager;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            // Отображение остаётся действительным и после закрытия канала
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            manager.bodyCrc = BinarySnapshotCodec.bodyCrc(mapped);
+            manager.count = BinarySnapshotCodec.checkHeaderOnly(mapped);
+            manager.snapshot = mapped.slice();
+        } catch (IOException | RuntimeException e) {
+            manager.close();
+            throw new ManagerReadFileException("Ошибка загрузки снимка " + file, e);
+        }
+        manager.hydrator = new Thread(manager::hydrate, "snapshot-hydrator");
+        manager.hydrator.setDaemon(true);
+        manager.hydrator.start();
+        return manager;
+    }
+
+    public boolean isHydrated() {
+        return hydrated;
+    }
+
+    // Блокирует до окончания фонового наполнения
+    public void awaitHydration() {
+        if (!hydrated) {
+            try {
+                hydration.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ManagerReadFileException("Ожидание загрузки снимка прервано", e);
+            }
+        }
+        if (hydrationFailure != null) {
+            throw hydrationFailure;
+        }
+    }
+
+    @Override
+    protected <T> T read(Supplier<T> action) {
+        awaitHydration();
+        return super.read(action);
+    }
+
+    @Override
+    protected <T> T write(Supplier<T> action) {
+        awaitHydration();
+        return super.write(action);
+    }
+
+    @Override
+    public Task getTaskById(int id) {
+        if (hydrated) {
+            return super.getTaskById(id);
+        }
+        return super.read(() -> {
+            Task task = tasks.get(id);
+            if (task == null) {
+                Task item = load(id);
+                task = item instanceof Subtask || item instanceof Epic ? null : item;
+            }
+            return view(task);
+        });
+    }
+
+    @Override
+    public Subtask getSubtaskById(int id) {
+        if (hydrated) {
+            return super.getSubtaskById(id);
+        }
+        return super.read(() -> {
+            Subtask subtask = subtasks.get(id);
+            if (subtask == null) {
+                Task item = load(id);
+                subtask = item instanceof Subtask ? (Subtask) item : null;
+            }
+            return view(subtask);
+        });
+    }
+
+    @Override
+    public Optional<Task> getTaskById(Integer taskId) {
+        if (hydrated || taskId == null) {
+            return super.getTaskById(taskId);
+        }
+        return Optional.ofNullable(getTaskById(taskId.intValue()));
+    }
+
+    @Override
+    public Optional<Subtask> getSubtaskById(Integer subtaskId) {
+        if (hydrated || subtaskId == null) {
+            return super.getSubtaskById(subtaskId);
+        }
+        return Optional.ofNullable(getSubtaskById(subtaskId.intValue()));
+    }
+
+    // Вызывается под блокировкой записи, когда менеджер уже наполнен; сам снимок пишет фоновый поток
+    @Override
+    protected void persist(List<? extends Task> changed, Collection<Integer> deleted) {
+        shadow.record(changed, deleted);
+        if (changes.incrementAndGet() - savedChanges >= dirtyThreshold) {
+            LockSupport.unpark(snapshotter);
+        }
+    }
+
+    // Записывает снимок сразу, если есть несохранённые изменения. Под блокировкой чтения забираются только
+    // накопленные записи изменений; кодирование и запись идут без блокировки
+    public synchronized void snapshot() {
+        if (!isDirty()) {
+            return;
+        }
+        long[] version = new long[1];
+        List<String> drained = read(() -> {
+            version[0] = changes.get();
+            return shadow.drain();
+        });
+        try {
+            if (!shadowSeeded) {
+                if (seedShadowFromFile) { // Файл ещё не перезаписывался: в нём состояние на момент открытия
+                    List<Task> items = new ArrayList<>();
+                    BinarySnapshotCodec.read(file, items::add);
+                    shadow.state().restoreAll(items);
+                }
+                shadowSeeded = true;
+            }
+            InMemoryTaskManager state = shadow.apply(drained);
+            BinarySnapshotCodec.write(file, state.getAllEpics(), state.getAllTasks(), state.getAllSubtasks());
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка сохранения снимка", e);
+        }
+        savedChanges = version[0];
+        lastFailure = null;
+    }
+
+    // Ошибка последней неудачной фоновой записи снимка или null
+    public ManagerSaveException getLastFailure() {
+        return lastFailure;
+    }
+
+    public boolean isDirty() {
+        return changes.get() != savedChanges;
+    }
+
+    @Override
+    public void close() {
+        if (hydrator != null) {
+            try {
+                hydrator.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        running = false;
+        LockSupport.unpark(snapshotter);
+        try {
+            snapshotter.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        snapshot();
+    }
+
+    private void snapshotLoop() {
+        while (running) {
+            LockSupport.parkNanos(this, intervalNanos);
+            if (!running) {
+                return;
+            }
+            try {
+                snapshot();
+            } catch (ManagerSaveException e) {
+                lastFailure = e; // Попытка повторится на следующем шаге, close() выбросит ошибку
+            }
+        }
+    }
+
+    // Вызывается под блокировкой чтения, пока наполнение не закончено: таблицы менеджера здесь не меняются.
+    // Наполнитель меняет их под блокировкой записи и забирает из loaded уже выданные объекты,
+    // поэтому задача, прочитанная до конца наполнения, остаётся тем же объектом и после него
+    private Task load(int id) {
+        if (snapshot == null) { // Наполнение закончилось, пока ждали блокировку
+            return null;
+        }
+        Task existing = tasks.containsKey(id) ? tasks.get(id) : subtasks.containsKey(id) ? subtasks.get(id) : epics.get(id);
+        if (existing != null) { // Уже наполнена, но другого типа, чем спрашивали
+            return existing;
+        }
+        synchronized (loaded) {
+            Task item = loaded.get(id);
+            if (item == null) {
+                item = decodeAt(find(id), id);
+                if (item != null && !(item instanceof Epic)) {
+                    loaded.put(id, item);
+                }
+            }
+            return item;
+        }
+    }
+
+    // Под монитором loaded. Индекс достраивается просмотром записей без создания объектов; записи,
+    // уже добавленные наполнителем, не просматриваются: их id нашлись бы в таблицах
+    private int find(int id) {
+        if (scannedCount < hydratedCount) {
+            scannedCount = hydratedCount;
+            scannedPosition = hydratedPosition;
+        }
+        int offset = offsets.get(id);
+        if (offset != MISSING || scannedCount >= count) {
+            return offset;
+        }
+        ByteBuffer cursor = snapshot.duplicate().position(scannedPosition);
+        try {
+            while (offset == MISSING && scannedCount < count) {
+                int position = cursor.position();
+                int found = BinarySnapshotCodec.skip(cursor);
+                scannedCount++;
+                offsets.put(found, position);
+                if (found == id) {
+                    offset = position;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            throw new ManagerReadFileException("Ошибка чтения снимка " + file, e);
+        } finally {
+            scannedPosition = cursor.position();
+        }
+        return offset;
+    }
+
+    private Task decodeAt(int offset, int id) {
+        if (offset == MISSING) {
+            return null;
+        }
+        try {
+            return BinarySnapshotCodec.decode(snapshot.duplicate().position(offset));
+        } catch (IOException | RuntimeException e) {
+            throw new ManagerReadFileException("Ошибка чтения записи " + id + " из снимка " + file, e);
+        }
+    }
+
+    private <T extends Task> T view(T item) {
+        if (item != null) {
+            recordView(item);
+        }
+        return item;
+    }
+
+    // Записи декодируются вне блокировки и добавляются пачками, чтобы обращения по id не ждали всего наполнения.
+    // Число записей берётся из заголовка; порядок файла (эпики раньше подзадач) сохраняется
+    private void hydrate() {
+        RuntimeException failure = null;
+        try {
+            BinarySnapshotCodec.checkBody(snapshot, bodyCrc);
+            ByteBuffer cursor = snapshot.duplicate();
+            int remaining = count;
+            while (remaining > 0) {
+                List<Task> batch = new ArrayList<>(Math.min(remaining, HYDRATION_BATCH));
+                for (int i = 0; i < HYDRATION_BATCH && remaining > 0; i++, remaining--) {
+                    batch.add(BinarySnapshotCodec.decode(cursor));
+                }
+                int position = cursor.position();
+                int done = count - remaining;
+                super.write(() -> {
+                    rejectDuplicates(batch);
+                    synchronized (loaded) {
+                        for (int i = 0; i < batch.size(); i++) {
+                            Task lazy = loaded.remove(batch.get(i).getId());
+                            if (lazy != null) {
+                                batch.set(i, lazy);
+                            }
+                        }
+                    }
+                    restoreAll(batch);
+                    hydratedCount = done;
+                    hydratedPosition = position;
+                    return null;
+                });
+            }
+            if (cursor.hasRemaining()) {
+                throw new IOException("Лишние данные после последней записи снимка");
+            }
+        } catch (IOException | RuntimeException e) {
+            failure = new ManagerReadFileException("Ошибка загрузки снимка " + file, e);
+        }
+        RuntimeException result = failure;
+        super.write(() -> {
+            finishHydration(result);
+            return null;
+        });
+    }
+
+    // Снимок пишется только с уникальными id; повтор означает повреждённый файл, а не правку
+    private void rejectDuplicates(List<Task> batch) {
+        Set<Integer> ids = new HashSet<>();
+        for (Task item : batch) {
+            int id = item.getId();
+            if (!ids.add(id) || tasks.containsKey(id) || subtasks.containsKey(id) || epics.containsKey(id)) {
+                throw new IllegalStateException("Повторяющийся id " + id + " в снимке");
+            }
+        }
+    }
+
+    // Снимок и индекс отпускаются под блокировкой записи: ленивое чтение по id проверяет их под блокировкой чтения.
+    // Все ссылки на отображение снимаются здесь, до первой перезаписи файла: изменения ждут конца наполнения,
+    // а декодированные записи не ссылаются на буфер
+    private void finishHydration(RuntimeException failure) {
+        hydrationFailure = failure;
+        snapshot = null;
+        synchronized (loaded) {
+            loaded.clear();
+            offsets = null;
+        }
+        hydrated = true;
+        hydration.countDown();
+    }
+}
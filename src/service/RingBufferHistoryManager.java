@@ -0,0 +1,123 @@
+package service;
+
+import model.Task;
+
+import java.util.Arrays;
+import java.util.List;
+
+// История на кольцевом буфере фиксированного размера.
+// Позиция задачи в буфере хранится в примитивной таблице id -> ячейка, поэтому повторный просмотр
+// и удаление - O(1): старая ячейка просто очищается ("надгробие"), задача дописывается в хвост.
+// Буфер вдвое больше ёмкости; когда хвост догоняет голову, живые записи уплотняются на месте,
+// что случается не чаще раза на capacity добавлений. В установившемся режиме add ничего не выделяет.
+public class RingBufferHistoryManager implements HistoryManager {
+    private static final int MISSING = -1;
+
+    private final Task[] ring;
+    private final int capacity;
+    private final IntIntHashMap slotsById;
+    private int head; // Ячейка самой давней записи
+    private int span; // Занятый участок буфера от головы, включая надгробия
+    private int size; // Число задач в истории
+
+    public RingBufferHistoryManager(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("History capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.ring = new Task[capacity * 2];
+        this.slotsById = new IntIntHashMap(capacity, MISSING);
+    }
+
+    @Override
+    public void add(Task task) {
+        if (task == null) return;
+
+        int previous = slotsById.get(task.getId());
+        if (previous != MISSING) {
+            ring[previous] = null; // Задача переезжает в хвост
+            size--;
+        }
+        if (span == ring.length) {
+            compact();
+        }
+        int tail = wrap(head + span);
+        ring[tail] = task;
+        slotsById.put(task.getId(), tail);
+        span++;
+        size++;
+
+        if (size > capacity) {
+            evictOldest();
+        }
+        skipTombstones();
+    }
+
+    @Override
+    public void remove(int id) {
+        int slot = slotsById.remove(id);
+        if (slot != MISSING) {
+            ring[slot] = null;
+            size--;
+            skipTombstones();
+        }
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        if (span != size) {
+            compact();
+        }
+        Task[] history = new Task[size];
+        int firstPart = Math.min(size, ring.length - head);
+        System.arraycopy(ring, head, history, 0, firstPart);
+        System.arraycopy(ring, 0, history, firstPart, size - firstPart);
+        return Arrays.asList(history);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    private void evictOldest() {
+        skipTombstones();
+        Task oldest = ring[head];
+        ring[head] = null;
+        slotsById.remove(oldest.getId());
+        size--;
+        head = wrap(head + 1);
+        span--;
+    }
+
+    private void skipTombstones() {
+        while (span > 0 && ring[head] == null) {
+            head = wrap(head + 1);
+            span--;
+        }
+    }
+
+    // Сдвигает живые записи к голове, сохраняя порядок; запись никогда не обгоняет чтение
+    private void compact() {
+        int write = head;
+        for (int i = 0; i < span; i++) {
+            int read = wrap(head + i);
+            Task task = ring[read];
+            if (task == null) continue;
+            if (read != write) {
+                ring[write] = task;
+                ring[read] = null;
+                slotsById.put(task.getId(), write);
+            }
+            write = wrap(write + 1);
+        }
+        span = size;
+    }
+
+    private int wrap(int index) {
+        return index >= ring.length ? index - ring.length : index;
+    }
+}
@@ -0,0 +1,138 @@
+package service;
+
+import model.Task;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+// Инвертированный индекс по названию, имени и описанию задач.
+// Термины лежат в TreeMap, поэтому поиск по префиксу - это subMap, а не обход всех задач.
+// Термины документа запоминаются при индексации: удаление не зависит от текущего состояния объекта.
+public class SearchIndex {
+    private final TreeMap<String, IntObjectHashMap<Posting>> postings = new TreeMap<>();
+    private final IntObjectHashMap<Set<String>> documentTerms = new IntObjectHashMap<>();
+
+    public void add(Task task) {
+        remove(task.getId());
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String text : new String[]{task.getTitle(), task.getName(), task.getDescription()}) {
+            for (String term : tokenize(text)) {
+                frequencies.merge(term, 1, Integer::sum);
+            }
+        }
+        if (frequencies.isEmpty()) return;
+
+        for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), term -> new IntObjectHashMap<>())
+                    .put(task.getId(), new Posting(task, entry.getValue()));
+        }
+        documentTerms.put(task.getId(), frequencies.keySet());
+    }
+
+    public void remove(int id) {
+        Set<String> terms = documentTerms.remove(id);
+        if (terms == null) return;
+        for (String term : terms) {
+            IntObjectHashMap<Posting> documents = postings.get(term);
+            documents.remove(id);
+            if (documents.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    // Задачи, содержащие все слова запроса (каждое - как точное слово или префикс), по убыванию релевантности.
+    // Вес совпадения - tf * idf; точное совпадение слова весит вдвое больше совпадения по префиксу
+    public List<Task> search(String query, int limit) {
+        List<String> queryTerms = tokenize(query);
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        Map<Integer, Hit> hits = null;
+        for (String queryTerm : queryTerms) {
+            Map<Integer, Hit> previousHits = hits;
+            Map<Integer, Hit> termHits = new HashMap<>();
+            NavigableMap<String, IntObjectHashMap<Posting>> matches = postings.subMap(queryTerm, true, queryTerm + Character.MAX_VALUE, false);
+            for (Map.Entry<String, IntObjectHashMap<Posting>> match : matches.entrySet()) {
+                IntObjectHashMap<Posting> documents = match.getValue();
+                double weight = Math.log(1.0 + (double) documentTerms.size() / documents.size());
+                if (match.getKey().equals(queryTerm)) {
+                    weight *= 2;
+                }
+                double termWeight = weight;
+                documents.forEachValue(posting -> {
+                    Hit previous = previousHits == null ? null : previousHits.get(posting.task.getId());
+                    if (previousHits == null || previous != null) {
+                        termHits.computeIfAbsent(posting.task.getId(), id -> new Hit(posting.task, previous == null ? 0 : previous.score))
+                                .score += posting.frequency * termWeight;
+                    }
+                });
+            }
+            hits = termHits; // Пересечение: остаются только задачи, совпавшие со всеми словами
+            if (hits.isEmpty()) break;
+        }
+
+        List<Hit> ranked = new ArrayList<>(hits.values());
+        ranked.sort((first, second) -> first.score != second.score
+                ? Double.compare(second.score, first.score)
+                : Integer.compare(first.task.getId(), second.task.getId()));
+        List<Task> result = new ArrayList<>(Math.min(limit, ranked.size()));
+        for (int i = 0; i < ranked.size() && i < limit; i++) {
+            result.add(ranked.get(i).task);
+        }
+        return result;
+    }
+
+    public int termCount() {
+        return postings.size();
+    }
+
+    public void clear() {
+        postings.clear();
+        documentTerms.clear();
+    }
+
+    // Слова - последовательности букв и цифр в нижнем регистре
+    static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) return terms;
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                terms.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    private static class Posting {
+        final Task task;
+        final int frequency;
+
+        Posting(Task task, int frequency) {
+            this.task = task;
+            this.frequency = frequency;
+        }
+    }
+
+    private static class Hit {
+        final Task task;
+        double score;
+
+        Hit(Task task, double score) {
+            this.task = task;
+            this.score = score;
+        }
+    }
+}
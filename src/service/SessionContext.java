@@ -0,0 +1,23 @@
+package service;
+
+// Сессия клиента, от имени которого работает текущий поток (например, значение заголовка X-Session-Id).
+// HTTP-обработчик задаёт её на время запроса; история по сессиям читает её через Supplier, не завися от HTTP.
+public final class SessionContext {
+    private static final ThreadLocal<String> current = new ThreadLocal<>();
+
+    private SessionContext() {
+    }
+
+    // Привязывает сессию к текущему потоку до вызова unbind; null - запрос без сессии
+    public static void bind(String sessionId) {
+        current.set(sessionId);
+    }
+
+    public static void unbind() {
+        current.remove();
+    }
+
+    public static String current() {
+        return current.get();
+    }
+}
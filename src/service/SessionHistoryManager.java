@@ -0,0 +1,141 @@
+package service;
+
+import model.Task;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+// История просмотров отдельно для каждой сессии (например, клиента HTTP-сервера).
+// Ключ сессии текущего вызова даёт sessionKey (по умолчанию SessionContext). Сессии лежат в ConcurrentHashMap,
+// у каждой своя блокировка, поэтому просмотры разных сессий не мешают друг другу; add и getHistory - O(1).
+// Сессия, не активная дольше idleTimeout, при обращении заменяется новой, а остальные простаивающие снимает
+// общий проход, который запускает одно из обращений не чаще раза в половину idleTimeout. При превышении лимита
+// вытесняются самые давние сессии - с запасом в восьмую часть лимита, чтобы проход был амортизированно дешёвым.
+// Удаление задачи сразу применяется ко всем живым сессиям: удаления редки, а чтения не платят за журнал.
+public class SessionHistoryManager implements HistoryManager {
+    public static final String DEFAULT_SESSION = ""; // Запросы без идентификатора сессии
+
+    private final ConcurrentHashMap<String, Session> sessions = new ConcurrentHashMap<>();
+    private final Object evictionLock = new Object();
+    private final AtomicLong lastSweep;
+    private final Supplier<HistoryManager> historyFactory;
+    private final Supplier<String> sessionKey;
+    private final int maxSessions;
+    private final long idleTimeoutNanos;
+    private final LongSupplier clock;
+
+    public SessionHistoryManager(int historyCapacity, int maxSessions, Duration idleTimeout) {
+        this(() -> new InMemoryHistoryManager(historyCapacity), SessionContext::current, maxSessions, idleTimeout, System::nanoTime);
+    }
+
+    SessionHistoryManager(Supplier<HistoryManager> historyFactory, Supplier<String> sessionKey, int maxSessions,
+                          Duration idleTimeout, LongSupplier clock) {
+        if (maxSessions <= 0 || idleTimeout.isNegative() || idleTimeout.isZero()) {
+            throw new IllegalArgumentException("Session limit and idle timeout must be positive");
+        }
+        this.historyFactory = historyFactory;
+        this.sessionKey = sessionKey;
+        this.maxSessions = maxSessions;
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        this.clock = clock;
+        this.lastSweep = new AtomicLong(clock.getAsLong());
+    }
+
+    @Override
+    public void add(Task task) {
+        if (task == null) return;
+        Session session = session(true);
+        synchronized (session) {
+            session.history.add(task);
+        }
+    }
+
+    // Удалённая задача сразу исчезает из истории всех живых сессий
+    @Override
+    public void remove(int id) {
+        for (Session session : sessions.values()) {
+            synchronized (session) {
+                session.history.remove(id);
+            }
+        }
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        Session session = session(false);
+        if (session == null) {
+            return List.of();
+        }
+        synchronized (session) {
+            return session.history.getHistory();
+        }
+    }
+
+    public int getSessionCount() {
+        sweep(clock.getAsLong());
+        return sessions.size();
+    }
+
+    private Session session(boolean create) {
+        String sessionId = sessionKey.get();
+        String key = sessionId == null ? DEFAULT_SESSION : sessionId;
+        long now = clock.getAsLong();
+        long previousSweep = lastSweep.get();
+        if (now - previousSweep > idleTimeoutNanos / 2 && lastSweep.compareAndSet(previousSweep, now)) {
+            sweep(now);
+        }
+        Session session = sessions.get(key);
+        if (session != null && now - session.lastAccess > idleTimeoutNanos) {
+            sessions.remove(key, session); // Истекла, но ещё не снята проходом
+            session = null;
+        }
+        if (session == null) {
+            if (!create) return null;
+            session = sessions.computeIfAbsent(key, ignored -> new Session(historyFactory.get(), now));
+            if (sessions.size() > maxSessions) {
+                evictEldest(key);
+            }
+        }
+        session.lastAccess = now;
+        return session;
+    }
+
+    private void sweep(long now) {
+        sessions.values().removeIf(session -> now - session.lastAccess > idleTimeoutNanos);
+    }
+
+    // Снимает самые давние сессии, кроме текущей, пока их не станет не больше лимита за вычетом запаса
+    private void evictEldest(String currentKey) {
+        synchronized (evictionLock) {
+            int excess = sessions.size() - (maxSessions - maxSessions / 8);
+            if (excess <= 0) {
+                return;
+            }
+            List<Map.Entry<String, Session>> entries = new ArrayList<>(sessions.entrySet());
+            entries.sort(Comparator.comparingLong(entry -> entry.getValue().lastAccess));
+            for (Map.Entry<String, Session> entry : entries) {
+                if (excess <= 0) break;
+                if (!entry.getKey().equals(currentKey) && sessions.remove(entry.getKey(), entry.getValue())) {
+                    excess--;
+                }
+            }
+        }
+    }
+
+    private static class Session {
+        final HistoryManager history; // Под монитором сессии
+        volatile long lastAccess;
+
+        Session(HistoryManager history, long lastAccess) {
+            this.history = history;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
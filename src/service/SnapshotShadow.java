@@ -0,0 +1,43 @@
+package service;
+
+import model.Task;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// Копия состояния для фоновых снимков (SnapshotTaskManager, MappedSnapshotTaskManager), принадлежащая потоку снимков.
+// Изменения попадают в неё записями журнала (TaskRecordCodec): под блокировкой записи менеджера они лишь копятся,
+// под блокировкой чтения очередь забирается за O(1), а повтор записей и кодирование снимка идут без блокировки.
+// Задачи копии - отдельные объекты, поэтому правки живых объектов на месте снимок не затрагивают.
+final class SnapshotShadow {
+    private final InMemoryTaskManager state = new InMemoryTaskManager();
+    private List<String> pending = new ArrayList<>();
+
+    // Вызывается под блокировкой записи менеджера
+    void record(List<? extends Task> changed, Collection<Integer> deleted) {
+        for (Task task : changed) {
+            pending.add(TaskRecordCodec.put(task));
+        }
+        for (int id : deleted) {
+            pending.add(TaskRecordCodec.delete(id));
+        }
+    }
+
+    // Вызывается под блокировкой чтения менеджера: изменений в этот момент нет
+    List<String> drain() {
+        List<String> drained = pending;
+        pending = new ArrayList<>();
+        return drained;
+    }
+
+    // Остальное - только из потока снимков или при загрузке, до первого снимка; блокировка менеджера не нужна
+    InMemoryTaskManager state() {
+        return state;
+    }
+
+    InMemoryTaskManager apply(List<String> records) {
+        TaskCheckpoint.replay(records, state);
+        return state;
+    }
+}
@@ -0,0 +1,126 @@
+package service;
+
+import exceptions.ManagerReadFileException;
+import exceptions.ManagerSaveException;
+import model.Task;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Режим хранения с фоновыми снимками: изменение лишь увеличивает счётчик несохранённых изменений,
+// а фоновый поток записывает снимок раз в interval или сразу, как только изменений накопилось dirtyThreshold.
+// Под блокировкой записи изменение кодируется в записи журнала и копится в SnapshotShadow; снимок под блокировкой
+// чтения лишь забирает накопленные записи за O(1), а повтор их на копии состояния, кодирование и запись на диск
+// идут без блокировки, поэтому писатели не ждут ни кодирования всей доски, ни диска.
+// Изменения после последнего снимка при сбое теряются; close() записывает их перед остановкой.
+public class SnapshotTaskManager extends ConcurrentTaskManager implements Closeable {
+    private final File file;
+    private final long intervalNanos;
+    private final long dirtyThreshold;
+    private final AtomicLong changes = new AtomicLong(); // Номер последнего изменения
+    private final Thread snapshotter;
+    private volatile long savedChanges; // Номер изменения, вошедшего в последний снимок
+    private volatile boolean running = true;
+    private volatile ManagerSaveException lastFailure;
+    private final SnapshotShadow shadow = new SnapshotShadow();
+
+    public SnapshotTaskManager(File file, Duration interval, long dirtyThreshold) {
+        super(Managers.getDefaultHistory());
+        if (interval == null || interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("Интервал снимков должен быть положительным");
+        }
+        if (dirtyThreshold <= 0) {
+            throw new IllegalArgumentException("Порог изменений должен быть положительным");
+        }
+        this.file = file;
+        this.intervalNanos = interval.toNanos();
+        this.dirtyThreshold = dirtyThreshold;
+        this.snapshotter = new Thread(this::snapshotLoop, "task-snapshotter");
+        snapshotter.setDaemon(true);
+        snapshotter.start();
+    }
+
+    public static SnapshotTaskManager load(File file, Duration interval, long dirtyThreshold) {
+        SnapshotTaskManager manager = new SnapshotTaskManager(file, interval, dirtyThreshold);
+        try {
+            TaskCheckpoint.restore(file, manager);
+            TaskCheckpoint.restore(file, manager.shadow.state()); // Копия для снимков - из тех же записей
+        } catch (IOException | RuntimeException e) {
+            manager.close();
+            throw new ManagerReadFileException("Ошибка загрузки снимка " + file, e);
+        }
+        return manager;
+    }
+
+    // Вызывается под блокировкой записи; сам снимок пишет фоновый поток
+    @Override
+    protected void persist(List<? extends Task> changed, Collection<Integer> deleted) {
+        shadow.record(changed, deleted);
+        if (changes.incrementAndGet() - savedChanges >= dirtyThreshold) {
+            LockSupport.unpark(snapshotter);
+        }
+    }
+
+    // Записывает снимок сразу, если есть несохранённые изменения
+    public synchronized void snapshot() {
+        if (!isDirty()) {
+            return;
+        }
+        long[] version = new long[1];
+        List<String> drained = read(() -> {
+            version[0] = changes.get();
+            return shadow.drain();
+        });
+        InMemoryTaskManager state = shadow.apply(drained);
+        try {
+            TaskCheckpoint.write(file, TaskCheckpoint.encode(state.getAllEpics(), state.getAllTasks(), state.getAllSubtasks()));
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка сохранения снимка", e);
+        }
+        savedChanges = version[0];
+        lastFailure = null;
+    }
+
+    // Ошибка последней неудачной фоновой записи снимка или null
+    public ManagerSaveException getLastFailure() {
+        return lastFailure;
+    }
+
+    public boolean isDirty() {
+        return changes.get() != savedChanges;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(snapshotter);
+        try {
+            snapshotter.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        snapshot();
+    }
+
+    private void snapshotLoop() {
+        while (running) {
+            LockSupport.parkNanos(this, intervalNanos);
+            if (!running) {
+                return;
+            }
+            try {
+                snapshot();
+            } catch (ManagerSaveException e) {
+                // Изменения остаются несохранёнными: попытка повторится на следующем шаге,
+                // а close() выбросит ошибку, если она не исчезнет
+                lastFailure = e;
+            }
+        }
+    }
+}
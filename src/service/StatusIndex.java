@@ -0,0 +1,49 @@
+package service;
+
+import model.Task;
+import model.TaskStatus;
+
+import java.util.EnumMap;
+import java.util.List;
+
+// Вторичный индекс задач по статусу: выборка по статусу за O(k), количество за O(1).
+// Статус, под которым задача проиндексирована, хранится отдельно, поэтому запись
+// корректно переносится даже если объект задачи изменили на месте до обновления.
+public class StatusIndex<T extends Task> {
+    private final EnumMap<TaskStatus, IntObjectHashMap<T>> byStatus = new EnumMap<>(TaskStatus.class);
+    private final IntObjectHashMap<TaskStatus> indexedStatus = new IntObjectHashMap<>();
+
+    public StatusIndex() {
+        for (TaskStatus status : TaskStatus.values()) {
+            byStatus.put(status, new IntObjectHashMap<>());
+        }
+    }
+
+    public void add(T item) {
+        remove(item.getId());
+        TaskStatus status = item.getStatus();
+        if (status == null) return; // Задачи без статуса не индексируются
+        byStatus.get(status).put(item.getId(), item);
+        indexedStatus.put(item.getId(), status);
+    }
+
+    public void remove(int id) {
+        TaskStatus status = indexedStatus.remove(id);
+        if (status != null) {
+            byStatus.get(status).remove(id);
+        }
+    }
+
+    public List<T> get(TaskStatus status) {
+        return byStatus.get(status).values();
+    }
+
+    public int count(TaskStatus status) {
+        return byStatus.get(status).size();
+    }
+
+    public void clear() {
+        byStatus.values().forEach(IntObjectHashMap::clear);
+        indexedStatus.clear();
+    }
+}
@@ -0,0 +1,91 @@
+package service;
+
+import exceptions.ManagerSaveException;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+// Контрольная точка и восстановление для хранилищ с журналом изменений (WalTaskManager, GroupCommitTaskManager)
+// и для фоновых снимков (SnapshotTaskManager).
+// Снимок пишется во временный файл, сбрасывается на диск и атомарно подменяет прежний.
+final class TaskCheckpoint {
+
+    private TaskCheckpoint() {
+    }
+
+    // Возвращает число записанных задач
+    static int write(File snapshotFile, TaskManager manager) throws IOException {
+        return write(snapshotFile, encode(manager.getAllEpics(), manager.getAllTasks(), manager.getAllSubtasks()));
+    }
+
+    // Списки должны быть снимком одного состояния. Строки записей, в отличие от объектов задач,
+    // не меняются после снятия блокировки
+    static List<String> encode(List<Epic> epics, List<Task> tasks, List<Subtask> subtasks) {
+        List<String> records = new ArrayList<>(epics.size() + tasks.size() + subtasks.size());
+        // Эпики раньше подзадач: при восстановлении подзадача привязывается к уже существующему эпику
+        for (Epic epic : epics) {
+            records.add(TaskRecordCodec.put(epic));
+        }
+        for (Task task : tasks) {
+            records.add(TaskRecordCodec.put(task));
+        }
+        for (Subtask subtask : subtasks) {
+            records.add(TaskRecordCodec.put(subtask));
+        }
+        return records;
+    }
+
+    static int write(File snapshotFile, List<String> records) throws IOException {
+        File tmp = new File(snapshotFile.getPath() + ".tmp");
+        Files.deleteIfExists(tmp.toPath());
+        try (WriteAheadLog writer = new WriteAheadLog(tmp)) {
+            writer.append(records);
+            writer.sync();
+        }
+        Files.move(tmp.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return records.size();
+    }
+
+    // Новое хранилище создаётся только на пустом месте: иначе прежние снимок и журнал были бы стёрты
+    static void checkAbsent(File snapshotFile) {
+        File log = new File(snapshotFile.getPath() + ".wal");
+        if (snapshotFile.exists() || log.exists()) {
+            throw new ManagerSaveException("Хранилище уже существует: " + snapshotFile + "; для открытия используйте load",
+                    new FileAlreadyExistsException(snapshotFile.exists() ? snapshotFile.getPath() : log.getPath()));
+        }
+    }
+
+    // Загружает снимок и повторяет поверх него журнал; оборванная последняя запись отрезается,
+    // поэтому дальнейшая дозапись безопасна
+    static void restore(File snapshotFile, WriteAheadLog log, InMemoryTaskManager manager) throws IOException {
+        restore(snapshotFile, manager);
+        replay(log.recover(), manager);
+    }
+
+    static void replay(List<String> log, InMemoryTaskManager manager) {
+        for (String record : log) {
+            if (TaskRecordCodec.operation(record) == TaskRecordCodec.DELETE) {
+                manager.removeById(TaskRecordCodec.deletedId(record));
+            } else {
+                manager.restore(TaskRecordCodec.decode(record));
+            }
+        }
+    }
+
+    static void restore(File snapshotFile, InMemoryTaskManager manager) throws IOException {
+        List<String> records = WriteAheadLog.read(snapshotFile);
+        List<Task> items = new ArrayList<>(records.size());
+        for (String record : records) {
+            items.add(TaskRecordCodec.decode(record));
+        }
+        manager.restoreAll(items);
+    }
+}
@@ -3,9 +3,17 @@ package service;
 import model.Epic;
 import model.Subtask;
 import model.Task;
+import model.TaskStatus;
+import model.TaskType;
+import model.TimeSlot;
+import model.ViewCount;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface TaskManager {
     int createTask(Task task); // Создает задачу и возвращает её ID
@@ -20,6 +28,11 @@ public interface TaskManager {
     List<Subtask> getAllSubtasks(); // Получает все подзадачи
     List<Epic> getAllEpics(); // Получает все эпики
 
+    // Пакетные операции: пакет проверяется целиком и применяется только если валиден
+    List<Integer> createBatch(List<? extends Task> items); // Создаёт задачи, подзадачи и эпики, возвращает их ID
+    void updateBatch(List<? extends Task> items);
+    int deleteBatch(Collection<Integer> ids); // Возвращает число удалённых элементов
+
     boolean deleteTask(int id); // Удаляет задачу по ID
     void deleteSubtask(int id); // Удаляет подзадачу по ID
     void deleteEpic(int id); // Удаляет эпик по ID
@@ -33,10 +46,46 @@ public interface TaskManager {
     boolean updateTask(Task task); // Обновляет задачу по ID
     void updateEpic(Epic epic);
 
+    // Постраничное чтение: не более limit элементов начиная с offset
+    List<Task> getTasks(int offset, int limit);
+    List<Subtask> getSubtasks(int offset, int limit);
+    List<Epic> getEpics(int offset, int limit);
+    List<Task> getPrioritizedTasks(int offset, int limit);
+
+    // Потоковый обход без копирования коллекций
+    void forEachTask(Consumer<? super Task> action);
+    void forEachSubtask(Consumer<? super Subtask> action);
+    void forEachEpic(Consumer<? super Epic> action);
+    void forEachPrioritizedTask(Consumer<? super Task> action);
+
     List<Task> getHistory(); // Получает историю задач
     List<Task> getPrioritizedTasks();
     List<Subtask> getSubtasksByEpicId(int epicId);
 
+    // Самые просматриваемые задачи с оценкой числа просмотров, по убыванию
+    List<ViewCount> getHotTasks(int limit);
+
+    // Полнотекстовый поиск по названию и описанию: нужны все слова запроса, каждое может быть префиксом;
+    // точное совпадение слова ранжируется выше
+    List<Task> search(String query, int limit);
+
+    // Выборка и подсчёт по статусу через вторичный индекс
+    List<Task> getTasksByStatus(TaskStatus status);
+    List<Subtask> getSubtasksByStatus(TaskStatus status);
+    List<Epic> getEpicsByStatus(TaskStatus status);
+    int getStatusCount(TaskType type, TaskStatus status);
+
+    // Задачи по времени начала: в диапазоне [from, to) (to == null - без конца), первые limit начиная с from,
+    // последние limit до before
+    List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to, int limit);
+    List<Task> getTasksStartingFrom(LocalDateTime from, int limit);
+    List<Task> getTasksStartingBefore(LocalDateTime before, int limit);
+
+    // Поиск свободного времени по упорядоченному расписанию
+    TimeSlot findFreeSlot(LocalDateTime after, Duration duration); // Самый ранний слот длительности duration
+    List<TimeSlot> findFreeSlots(LocalDateTime from, LocalDateTime to, Duration minDuration, int limit);
+
     boolean validateTask(Task task);
+    List<Task> getOverlappingTasks(Task task); // Задачи, пересекающиеся по времени с переданной
     void addToHistory(int taskId);
 }
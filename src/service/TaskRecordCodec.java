@@ -0,0 +1,113 @@
+package service;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+// Строковое представление задач для журнала изменений и контрольной точки.
+// В отличие от CSV сохраняет время подзадач и допускает любые символы в тексте:
+// поля разделены табуляцией, спецсимволы экранируются, null записывается как \0.
+final class TaskRecordCodec {
+    static final char PUT = 'P';
+    static final char DELETE = 'D';
+    private static final String NULL = "\\0";
+
+    private TaskRecordCodec() {
+    }
+
+    static String put(Task task) {
+        StringBuilder record = new StringBuilder(64).append(PUT);
+        String type = task instanceof Epic ? "EPIC" : task instanceof Subtask ? "SUBTASK" : "TASK";
+        field(record, type);
+        field(record, Integer.toString(task.getId()));
+        field(record, task.getStatus() != null ? task.getStatus().name() : null);
+        field(record, task instanceof Subtask ? Integer.toString(((Subtask) task).getEpicId()) : null);
+        boolean scheduled = !(task instanceof Epic); // Время эпика вычисляется по подзадачам
+        field(record, scheduled && task.getStartTime() != null ? task.getStartTime().toString() : null);
+        field(record, scheduled && task.getDuration() != null ? task.getDuration().toString() : null);
+        field(record, task.getTitle());
+        field(record, task.getDescription());
+        return record.toString();
+    }
+
+    static String delete(int id) {
+        return DELETE + "\t" + id;
+    }
+
+    static char operation(String record) {
+        return record.charAt(0);
+    }
+
+    static int deletedId(String record) {
+        return Integer.parseInt(record.substring(2));
+    }
+
+    static Task decode(String record) {
+        String[] fields = record.split("\t", -1);
+        if (fields.length != 9 || operation(record) != PUT) {
+            throw new IllegalArgumentException("Malformed task record: " + record);
+        }
+        int id = Integer.parseInt(fields[2]);
+        String statusName = unescape(fields[3]);
+        TaskStatus status = statusName != null ? TaskStatus.valueOf(statusName) : null;
+        String start = unescape(fields[5]);
+        String duration = unescape(fields[6]);
+        LocalDateTime startTime = start != null ? LocalDateTime.parse(start) : null;
+        Duration taskDuration = duration != null ? Duration.parse(duration) : null;
+        String title = unescape(fields[7]);
+        String description = unescape(fields[8]);
+
+        switch (fields[1]) {
+            case "EPIC":
+                return new Epic(id, title, status, description, null);
+            case "SUBTASK":
+                return new Subtask(id, title, description, status, Integer.parseInt(fields[4]), taskDuration, startTime);
+            case "TASK":
+                return new Task(id, title, description, status, taskDuration, startTime);
+            default:
+                throw new IllegalArgumentException("Unknown task type: " + fields[1]);
+        }
+    }
+
+    private static void field(StringBuilder record, String value) {
+        record.append('\t');
+        if (value == null) {
+            record.append(NULL);
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\': record.append("\\\\"); break;
+                case '\t': record.append("\\t"); break;
+                case '\n': record.append("\\n"); break;
+                case '\r': record.append("\\r"); break;
+                default: record.append(c);
+            }
+        }
+    }
+
+    private static String unescape(String value) {
+        if (value.equals(NULL)) {
+            return null;
+        }
+        if (value.indexOf('\\') < 0) {
+            return value;
+        }
+        StringBuilder result = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char next = value.charAt(++i);
+                result.append(next == 't' ? '\t' : next == 'n' ? '\n' : next == 'r' ? '\r' : next);
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+}
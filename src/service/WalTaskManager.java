@@ -0,0 +1,102 @@
+package service;
+
+import exceptions.ManagerReadFileException;
+import exceptions.ManagerSaveException;
+import model.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// Режим хранения с журналом изменений: каждое изменение дописывает в <file>.wal только свои записи,
+// вместо перезаписи всего файла. Файл file - контрольная точка (снимок всех задач в том же формате записей).
+// Когда журнал становится вдвое длиннее снимка, делается новая контрольная точка и журнал очищается.
+// Восстановление: снимок, затем повтор журнала. Записи идемпотентны (вставка-или-замена, удаление по id),
+// поэтому повтор журнала поверх более новой контрольной точки после сбоя даёт то же состояние.
+// Каждое изменение сбрасывается на диск (FileChannel.force) до возврата, поэтому подтверждённая запись
+// переживает и отключение питания; для большого потока записей есть GroupCommitTaskManager.
+// Новое хранилище создаёт create, существующее открывает load.
+public class WalTaskManager extends FileBackedTaskManager {
+    private static final int MIN_CHECKPOINT_RECORDS = 4096;
+
+    private final WriteAheadLog wal;
+    private int checkpointThreshold = MIN_CHECKPOINT_RECORDS;
+
+    // Новое пустое хранилище; если в file уже есть снимок или журнал, бросает исключение
+    public static WalTaskManager create(File file) {
+        TaskCheckpoint.checkAbsent(file);
+        return new WalTaskManager(file, true);
+    }
+
+    private WalTaskManager(File file, boolean fresh) {
+        super(file);
+        try {
+            this.wal = new WriteAheadLog(new File(file.getPath() + ".wal"));
+        } catch (IOException e) {
+            throw new ManagerSaveException("Не удалось открыть журнал изменений", e);
+        }
+        if (fresh) {
+            checkpoint();
+        }
+    }
+
+    public static WalTaskManager load(File file) {
+        WalTaskManager manager = new WalTaskManager(file, false);
+        try {
+            TaskCheckpoint.restore(file, manager.wal, manager);
+            manager.restoreHistory();
+        } catch (IOException | RuntimeException e) {
+            throw new ManagerReadFileException("Ошибка восстановления из журнала " + file, e);
+        }
+        return manager;
+    }
+
+    @Override
+    protected void persist(List<? extends Task> changed, Collection<Integer> deleted) {
+        List<String> records = new ArrayList<>(changed.size() + deleted.size());
+        for (Task task : changed) {
+            records.add(TaskRecordCodec.put(task));
+        }
+        for (int id : deleted) {
+            records.add(TaskRecordCodec.delete(id));
+        }
+        try {
+            wal.append(records);
+            wal.sync();
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка записи в журнал изменений", e);
+        }
+        if (wal.size() > checkpointThreshold) {
+            checkpoint();
+        }
+    }
+
+    // Явное сохранение - это контрольная точка
+    @Override
+    void save() {
+        checkpoint();
+        saveHistory();
+    }
+
+    public void checkpoint() {
+        try {
+            int count = TaskCheckpoint.write(file, this);
+            wal.reset();
+            checkpointThreshold = Math.max(MIN_CHECKPOINT_RECORDS, 2 * count);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка сохранения контрольной точки", e);
+        }
+    }
+
+    public int getLogSize() {
+        return wal.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        super.close();
+        wal.close();
+    }
+}
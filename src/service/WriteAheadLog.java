@@ -0,0 +1,111 @@
+package service;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+// Журнал изменений: записи-строки только дописываются в конец файла.
+// Запись пачки - один вызов write; методы синхронизированы, так как писать и очищать журнал могут разные потоки; последняя строка без перевода строки считается оборванной при сбое и отбрасывается.
+public class WriteAheadLog implements Closeable {
+    private final File file;
+    private FileChannel channel;
+    private int records;
+
+    public WriteAheadLog(File file) throws IOException {
+        this.file = file;
+        this.channel = open(false);
+    }
+
+    public synchronized void append(List<String> batch) throws IOException {
+        if (batch.isEmpty()) return;
+        StringBuilder text = new StringBuilder(batch.size() * 64);
+        for (String record : batch) {
+            text.append(record).append('\n');
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(text.toString().getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        records += batch.size();
+    }
+
+    // Сбрасывает записанное на диск
+    public synchronized void sync() throws IOException {
+        channel.force(false);
+    }
+
+    // Очищает журнал после контрольной точки
+    public synchronized void reset() throws IOException {
+        channel.close();
+        channel = open(true);
+        records = 0;
+    }
+
+    // Число записей с момента открытия или последней очистки
+    public synchronized int size() {
+        return records;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    // Восстановление после сбоя: возвращает полные записи и отрезает оборванный хвост,
+    // иначе следующая дозапись склеилась бы с ним в одну испорченную строку
+    public synchronized List<String> recover() throws IOException {
+        byte[] bytes = file.exists() ? Files.readAllBytes(file.toPath()) : new byte[0];
+        int validLength = completeLength(bytes);
+        if (channel.size() > validLength) {
+            channel.truncate(validLength);
+            channel.force(false);
+        }
+        List<String> result = parse(bytes, validLength);
+        records = result.size();
+        return result;
+    }
+
+    // Полные записи журнала по порядку
+    public static List<String> read(File file) throws IOException {
+        if (!file.exists()) {
+            return new ArrayList<>();
+        }
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        return parse(bytes, completeLength(bytes));
+    }
+
+    // Длина части файла, заканчивающейся последним переводом строки
+    private static int completeLength(byte[] bytes) {
+        int end = bytes.length;
+        while (end > 0 && bytes[end - 1] != '\n') {
+            end--;
+        }
+        return end;
+    }
+
+    private static List<String> parse(byte[] bytes, int length) {
+        List<String> result = new ArrayList<>();
+        String text = new String(bytes, 0, length, StandardCharsets.UTF_8);
+        int start = 0;
+        for (int end = text.indexOf('\n'); end >= 0; end = text.indexOf('\n', start)) {
+            if (end > start) {
+                result.add(text.substring(start, end));
+            }
+            start = end + 1;
+        }
+        return result;
+    }
+
+    private FileChannel open(boolean truncate) throws IOException {
+        return truncate
+                ? FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)
+                : FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+}
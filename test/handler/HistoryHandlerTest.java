@@ -1,5 +1,6 @@
 package service.handler;
 
+import http.handler.BaseHttpHandler;
 import http.handler.typeAdapter.DurationAdapter;
 import http.handler.typeAdapter.LocalDateTimeAdapter;
 import http.HttpTaskServer;
@@ -10,6 +11,7 @@ import model.*;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import service.ConcurrentTaskManager;
 import service.Managers;
 import service.TaskManager;
 
@@ -91,6 +93,35 @@ class HistoryHandlerTest {
         assertEquals(taskId, history.get(0).getId(), "First task in history should be the task.");
     }
 
+    @Test
+    void shouldKeepSeparateHistoryPerSession() throws IOException, InterruptedException {
+        server.stop();
+        manager = new ConcurrentTaskManager(Managers.getSessionHistory(10, 100, Duration.ofMinutes(5)));
+        server = new HttpTaskServer(manager);
+        server.start();
+        int taskId = manager.createTask(new Task("Task 1", "Description", TaskStatus.NEW, Duration.ofMinutes(30), LocalDateTime.of(2025, 3, 1, 10, 0)));
+
+        HttpRequest view = HttpRequest.newBuilder()
+                .uri(URI.create(BASE_URL + "/tasks/" + taskId))
+                .header(BaseHttpHandler.SESSION_HEADER, "alice")
+                .GET()
+                .build();
+        client.send(view, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(1, getHistory("alice").size(), "Viewer session should see the task.");
+        assertTrue(getHistory("bob").isEmpty(), "Other sessions should not see the view.");
+    }
+
+    private List<Task> getHistory(String session) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(HISTORY_URL))
+                .header(BaseHttpHandler.SESSION_HEADER, session)
+                .GET()
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        return gson.fromJson(response.body(), new TypeToken<List<Task>>() {}.getType());
+    }
+
     private void viewTask(int taskId, TaskType type) throws IOException, InterruptedException {
         String endpoint = switch (type) {
             case TASK -> "/tasks/";
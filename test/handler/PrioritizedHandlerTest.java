@@ -62,4 +62,25 @@ public class PrioritizedHandlerTest {
         Task[] retrievedTasks = gson.fromJson(response.body(), Task[].class);
         assertEquals("Existing Prioritized Task", retrievedTasks[0].getTitle());
     }
+
+    @Test
+    public void testGetPrioritizedTasksInRange() throws IOException, InterruptedException {
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 10, 0);
+        for (int i = 0; i < 3; i++) {
+            manager.createTask(new Task("Task " + i, "Description", TaskStatus.NEW, Duration.ofMinutes(30), start.plusHours(i)));
+        }
+
+        HttpClient client = HttpClient.newHttpClient();
+        URI url = URI.create("http://localhost:8080/prioritized?from=2025-03-01T10:30&to=2025-03-01T13:00");
+        HttpRequest request = HttpRequest.newBuilder().uri(url).GET().build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        Task[] tasks = gson.fromJson(response.body(), Task[].class);
+        assertEquals(2, tasks.length);
+        assertEquals("Task 1", tasks[0].getTitle());
+
+        url = URI.create("http://localhost:8080/prioritized?from=yesterday");
+        response = client.send(HttpRequest.newBuilder().uri(url).GET().build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(400, response.statusCode());
+    }
 }
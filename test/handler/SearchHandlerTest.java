@@ -0,0 +1,85 @@
+package handler;
+
+import http.handler.typeAdapter.DurationAdapter;
+import http.handler.typeAdapter.LocalDateTimeAdapter;
+import http.HttpTaskServer;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import model.Task;
+import model.TaskStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import service.InMemoryTaskManager;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SearchHandlerTest {
+    private HttpTaskServer taskServer;
+    private Gson gson;
+    private InMemoryTaskManager manager;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        manager = new InMemoryTaskManager();
+        taskServer = new HttpTaskServer(manager);
+        gson = new GsonBuilder()
+                .registerTypeAdapter(Duration.class, new DurationAdapter())
+                .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
+                .create();
+        taskServer.start();
+    }
+
+    @AfterEach
+    public void shutDown() {
+        taskServer.stop();
+    }
+
+    @Test
+    public void testSearchTasks() throws IOException, InterruptedException {
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 10, 0);
+        manager.createTask(new Task("Write report", "Monthly numbers", TaskStatus.NEW, Duration.ofMinutes(30), start));
+        manager.createTask(new Task("Call client", "Discuss the contract", TaskStatus.NEW, Duration.ofMinutes(30), start.plusHours(1)));
+
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/search?q=rep"))
+                .GET()
+                .build();
+
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        Task[] found = gson.fromJson(response.body(), Task[].class);
+        assertEquals(1, found.length);
+        assertEquals("Write report", found[0].getTitle());
+
+        HttpRequest empty = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/search"))
+                .GET()
+                .build();
+        assertEquals(400, client.send(empty, HttpResponse.BodyHandlers.ofString()).statusCode());
+    }
+
+    @Test
+    public void testMalformedQueryEscapeIsBadRequest() throws IOException {
+        // HttpClient не пропустит такой адрес, поэтому запрос пишется в сокет напрямую; ответ 400 - кто бы его ни дал, сервер или обработчик
+        try (Socket socket = new Socket("localhost", 8080)) {
+            socket.getOutputStream().write("GET /search?q=%zz HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n"
+                    .getBytes(StandardCharsets.US_ASCII));
+            BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            assertTrue(reader.readLine().startsWith("HTTP/1.1 400"), "A malformed escape is a client error.");
+        }
+    }
+}
@@ -102,4 +102,58 @@ public class TaskHandlerTest {
         List<Task> tasks = manager.getAllTasks();
         assertEquals(0, tasks.size());
     }
+
+    @Test
+    public void testGetTasksPage() throws IOException, InterruptedException {
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 10, 0);
+        for (int i = 0; i < 5; i++) {
+            manager.createTask(new Task("Task " + i, "Paged task", TaskStatus.NEW, Duration.ofMinutes(10), start.plusHours(i)));
+        }
+
+        HttpClient client = HttpClient.newHttpClient();
+        URI url = URI.create("http://localhost:8080/tasks?offset=1&limit=2");
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(url)
+                .GET()
+                .build();
+
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+
+        Task[] page = gson.fromJson(response.body(), Task[].class);
+        assertEquals(2, page.length);
+        assertEquals("Task 1", page[0].getTitle());
+        assertEquals("Task 2", page[1].getTitle());
+
+        HttpRequest invalid = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks?limit=abc"))
+                .GET()
+                .build();
+        assertEquals(400, client.send(invalid, HttpResponse.BodyHandlers.ofString()).statusCode());
+    }
+
+    @Test
+    public void testGetTasksByStatus() throws IOException, InterruptedException {
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 10, 0);
+        manager.createTask(new Task("New task", "Filtered task", TaskStatus.NEW, Duration.ofMinutes(10), start));
+        manager.createTask(new Task("Done task", "Filtered task", TaskStatus.DONE, Duration.ofMinutes(10), start.plusHours(1)));
+
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks?status=done"))
+                .GET()
+                .build();
+
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        Task[] tasks = gson.fromJson(response.body(), Task[].class);
+        assertEquals(1, tasks.length);
+        assertEquals("Done task", tasks[0].getTitle());
+
+        HttpRequest invalid = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks?status=LATER"))
+                .GET()
+                .build();
+        assertEquals(400, client.send(invalid, HttpResponse.BodyHandlers.ofString()).statusCode());
+    }
 }
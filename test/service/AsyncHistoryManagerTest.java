@@ -0,0 +1,79 @@
+package service;
+
+import model.Task;
+import model.TaskStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncHistoryManagerTest {
+    private AsyncHistoryManager historyManager;
+
+    @BeforeEach
+    void setUp() {
+        historyManager = new AsyncHistoryManager(new InMemoryHistoryManager());
+    }
+
+    @AfterEach
+    void tearDown() {
+        historyManager.close();
+    }
+
+    private static Task task(int id) {
+        Task task = new Task("Task " + id, "Description", TaskStatus.NEW);
+        task.setId(id);
+        return task;
+    }
+
+    @Test
+    void testFlushAppliesEventsInOrder() {
+        historyManager.add(task(1));
+        historyManager.add(task(2));
+        historyManager.add(task(1));
+        historyManager.remove(2);
+        historyManager.flush();
+
+        List<Task> history = historyManager.getHistory();
+        assertEquals(1, history.size());
+        assertEquals(1, history.get(0).getId());
+    }
+
+    @Test
+    void testConcurrentViewsAreAllRecorded() throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int offset = t * 1_000;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 1_000; i++) {
+                    historyManager.add(task(offset + i));
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        historyManager.flush();
+        assertEquals(4_000, historyManager.getHistory().size());
+    }
+
+    @Test
+    void testManagerSeesOwnViews() {
+        TaskManager manager = new ConcurrentTaskManager(historyManager);
+        int taskId = manager.createTask(new Task("Task", "Description", TaskStatus.NEW, Duration.ofHours(1), LocalDateTime.of(2025, 3, 1, 10, 0)));
+        manager.getTaskById(taskId);
+        manager.getTaskById(Integer.valueOf(taskId));
+
+        List<Task> history = manager.getHistory();
+        assertEquals(1, history.size(), "getHistory should include views made before it.");
+        assertSame(manager.getAllTasks().get(0), history.get(0), "History should keep the stored task, not a copy.");
+    }
+}
@@ -0,0 +1,74 @@
+package service;
+
+import exceptions.ManagerReadFileException;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryFileTaskManagerTest extends StorageTaskManagerTest<BinaryFileTaskManager> {
+    @Override
+    protected BinaryFileTaskManager createTaskManager(File file) {
+        return new BinaryFileTaskManager(file);
+    }
+
+    @Override
+    protected String fileName() {
+        return "tasks.bin";
+    }
+
+    @Test
+    void snapshotRoundTripKeepsEverything() throws IOException {
+        LocalDateTime start = LocalDateTime.of(1969, 12, 31, 23, 59, 30, 500);
+        int taskId = taskManager.createTask(new Task("Задача, с запятой", null, TaskStatus.IN_PROGRESS, Duration.ofMinutes(90), start));
+        int epicId = taskManager.createEpic(new Epic("Эпик", "Строка 1\nСтрока 2"));
+        int subtaskId = taskManager.createSubtask(new Subtask("Подзадача", "Описание", TaskStatus.DONE, epicId, Duration.ofMinutes(30), start.plusHours(2)));
+        close(taskManager);
+
+        BinaryFileTaskManager restored = track(BinaryFileTaskManager.load(file));
+        Task task = restored.getTaskById(taskId);
+        assertEquals("Задача, с запятой", task.getTitle());
+        assertNull(task.getDescription());
+        assertEquals(start, task.getStartTime(), "Timestamps before the epoch and nanos should survive.");
+        assertEquals(Duration.ofMinutes(90), task.getDuration());
+        assertEquals("Строка 1\nСтрока 2", restored.getEpicById(epicId).getDescription());
+        assertEquals(start.plusHours(2), restored.getSubtaskById(subtaskId).getStartTime());
+        assertEquals(List.of(subtaskId), List.copyOf(restored.getEpicById(epicId).getSubtaskIds()));
+        assertEquals(TaskStatus.DONE, restored.getEpicById(epicId).getStatus());
+    }
+
+    @Test
+    void corruptedOrUnknownSnapshotIsRejected() throws IOException {
+        taskManager.createTask(new Task("Задача", "Описание", TaskStatus.NEW, Duration.ofHours(1), LocalDateTime.of(2025, 3, 1, 10, 0)));
+        try (RandomAccessFile raw = new RandomAccessFile(file, "rw")) {
+            raw.seek(raw.length() - 1);
+            raw.write(raw.read() ^ 0xFF);
+        }
+        assertThrows(ManagerReadFileException.class, () -> BinaryFileTaskManager.load(file), "Body checksum should catch corruption.");
+
+        Files.writeString(file.toPath(), "id,type,name,status,description,epic\n");
+        assertThrows(ManagerReadFileException.class, () -> BinaryFileTaskManager.load(file), "CSV is not a binary snapshot.");
+    }
+
+    @Test
+    void csvRemainsImportAndExportFormat() throws IOException {
+        int taskId = taskManager.createTask(new Task("Задача", "Описание", TaskStatus.NEW, Duration.ofHours(1), LocalDateTime.of(2025, 3, 1, 10, 0)));
+        File csv = new File(file.getParentFile(), "tasks.csv");
+        taskManager.exportCsv(csv);
+        assertTrue(Files.readString(csv.toPath()).startsWith("id,type,name,status,description,epic"));
+
+        BinaryFileTaskManager imported = track(BinaryFileTaskManager.importCsv(csv, new File(file.getParentFile(), "imported.bin")));
+        assertEquals("Задача", imported.getTaskById(taskId).getTitle());
+    }
+}
@@ -0,0 +1,137 @@
+package service;
+
+import model.Task;
+import model.TaskStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentTaskManagerTest extends TaskManagerTest<ConcurrentTaskManager> {
+
+    @Override
+    protected ConcurrentTaskManager createTaskManager() {
+        return new ConcurrentTaskManager();
+    }
+
+    @Test
+    void concurrentCreatesGetUniqueIds() throws Exception {
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 0, 0);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Callable<Integer>> calls = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            LocalDateTime taskStart = start.plusHours(i);
+            calls.add(() -> taskManager.createTask(new Task("Task", "Description", TaskStatus.NEW, Duration.ofHours(1), taskStart)));
+        }
+
+        Set<Integer> ids = new HashSet<>();
+        for (Future<Integer> future : executor.invokeAll(calls)) {
+            ids.add(future.get());
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(200, ids.size(), "Every task should get its own id.");
+        assertEquals(200, taskManager.getAllTasks().size());
+    }
+
+    @Test
+    void concurrentOverlappingCreatesAcceptOnlyOne() throws Exception {
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 10, 0);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Callable<Boolean>> calls = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            calls.add(() -> {
+                try {
+                    taskManager.createTask(new Task("Task", "Description", TaskStatus.NEW, Duration.ofHours(1), start));
+                    return true;
+                } catch (IllegalArgumentException e) {
+                    return false;
+                }
+            });
+        }
+
+        int created = 0;
+        for (Future<Boolean> future : executor.invokeAll(calls)) {
+            if (future.get()) created++;
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(1, created, "Overlap check and insert should be atomic.");
+        assertEquals(1, taskManager.getAllTasks().size());
+    }
+
+    @Test
+    void afterWriteFailureDoesNotHideOriginalError() {
+        int[] calls = new int[1];
+        ConcurrentTaskManager failing = new ConcurrentTaskManager() {
+            @Override
+            protected void afterWrite() {
+                calls[0]++;
+                throw new IllegalStateException("after write");
+            }
+        };
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 10, 0);
+        assertThrows(IllegalStateException.class,
+                () -> failing.createTask(new Task("Task", "Description", TaskStatus.NEW, Duration.ofHours(1), start)));
+        assertEquals(1, calls[0]);
+
+        IllegalArgumentException overlap = assertThrows(IllegalArgumentException.class,
+                () -> failing.createTask(new Task("Task", "Description", TaskStatus.NEW, Duration.ofHours(1), start)),
+                "Original error should be thrown, not the afterWrite one.");
+        assertEquals(2, calls[0]);
+        assertEquals(1, overlap.getSuppressed().length);
+        assertInstanceOf(IllegalStateException.class, overlap.getSuppressed()[0]);
+    }
+
+    @Test
+    void readersDoNotWaitForHistory() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        HistoryManager slowHistory = new InMemoryHistoryManager() {
+            @Override
+            public void add(Task task) {
+                try {
+                    release.await(); // Медленная история не должна задерживать чтения
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.add(task);
+            }
+        };
+        ConcurrentTaskManager manager = new ConcurrentTaskManager(slowHistory);
+        int taskId = manager.createTask(new Task("Task", "Description", TaskStatus.NEW, Duration.ofHours(1), LocalDateTime.of(2025, 3, 1, 10, 0)));
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Callable<Boolean>> readers = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                readers.add(() -> {
+                    for (int j = 0; j < 100; j++) {
+                        manager.getTaskById(taskId);
+                    }
+                    return true;
+                });
+            }
+            for (Future<Boolean> future : executor.invokeAll(readers, 10, TimeUnit.SECONDS)) {
+                assertTrue(future.get(), "Parallel readers should make progress while history is busy.");
+            }
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+        assertEquals(taskId, manager.getHistory().get(0).getId());
+    }
+}
@@ -7,17 +7,24 @@ import model.TaskStatus;
 import org.junit.jupiter.api.Test;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
-class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskManager> {
-    private File testFile = new File("testFile.csv"); // Замените на правильный путь к тестовому файлу
+class FileBackedTaskManagerTest extends StorageTaskManagerTest<FileBackedTaskManager> {
+    @Override
+    protected FileBackedTaskManager createTaskManager(File file) {
+        return new FileBackedTaskManager(file); // Файл и журнал просмотров рядом с ним - во временном каталоге теста
+    }
 
     @Override
-    protected FileBackedTaskManager createTaskManager() {
-        return new FileBackedTaskManager(testFile);
+    protected String fileName() {
+        return "tasks.csv";
     }
 
     @Test
@@ -155,7 +162,7 @@ class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskManager> {
 
         // Явно вызываем сохранение
         taskManager.save();
-        assertTrue(testFile.exists());
+        assertTrue(file.exists());
     }
 
     @Test
@@ -168,7 +175,7 @@ class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskManager> {
         taskManager.save(); // Сохраняем задачи в файл
 
         // Загружаем задачи из файла с помощью метода loadFromFile
-        FileBackedTaskManager newTaskManager = FileBackedTaskManager.loadFromFile(testFile);
+        FileBackedTaskManager newTaskManager = track(FileBackedTaskManager.loadFromFile(file));
 
         // Проверяем, что задача была загружена правильно
         Task loadedTask = newTaskManager.getTaskById(taskId);
@@ -177,4 +184,56 @@ class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskManager> {
         assertEquals("Описание задачи", loadedTask.getDescription());
         assertEquals(TaskStatus.NEW, loadedTask.getStatus());
     }
+
+    @Test
+    void historyIsRestoredAfterReload() throws IOException {
+        Task first = new Task("Первая", "Описание", TaskStatus.NEW, Duration.ofHours(1), LocalDateTime.of(2025, 3, 1, 10, 0));
+        Task second = new Task("Вторая", "Описание", TaskStatus.NEW, Duration.ofHours(1), LocalDateTime.of(2025, 3, 1, 12, 0));
+        int firstId = taskManager.createTask(first);
+        int secondId = taskManager.createTask(second);
+        taskManager.getTaskById(secondId);
+        taskManager.getTaskById(firstId);
+        taskManager.getTaskById(secondId);
+        close(taskManager);
+
+        FileBackedTaskManager restored = track(FileBackedTaskManager.loadFromFile(file));
+        List<Task> history = restored.getHistory();
+        assertEquals(2, history.size(), "Repeated views should collapse on restore.");
+        assertEquals(firstId, history.get(0).getId());
+        assertEquals(secondId, history.get(1).getId());
+    }
+
+    @Test
+    void bufferedViewsReachHistoryLogOnSave() throws IOException {
+        int taskId = taskManager.createTask(new Task("Задача", "Описание", TaskStatus.NEW, Duration.ofHours(1), LocalDateTime.of(2025, 3, 1, 10, 0)));
+        File historyFile = new File(file.getPath() + ".history");
+        taskManager.getTaskById(taskId); // Первый просмотр создаёт журнал
+        for (int i = 0; i < 3; i++) {
+            taskManager.getTaskById(taskId);
+        }
+        taskManager.save();
+
+        assertEquals(Collections.nCopies(4, Integer.toString(taskId)), Files.readAllLines(historyFile.toPath()));
+        close(taskManager);
+        assertEquals(List.of(taskId), track(FileBackedTaskManager.loadFromFile(file)).getHistory().stream().map(Task::getId).toList());
+    }
+
+    @Test
+    void loadRestoresOriginalStateWithoutRewritingFile() throws IOException {
+        File csv = directory.resolve("restore.csv").toFile();
+        // Подзадача раньше эпика, id с пропусками, пересекающиеся задачи - файл принимается как есть
+        String content = "id,type,name,status,description,epic\n"
+                + "7,SUBTASK,Подзадача,DONE,Описание,2025-03-01T10:00,PT30M,5\n"
+                + "2,TASK,Задача 1,NEW,Описание,2025-03-01T09:00,PT2H\n"
+                + "3,TASK,Задача 2,NEW,Описание,2025-03-01T10:00,PT1H\n"
+                + "5,EPIC,Эпик,NEW,Описание,\n";
+        Files.writeString(csv.toPath(), content);
+
+        FileBackedTaskManager restored = track(FileBackedTaskManager.loadFromFile(csv));
+        assertEquals(content, Files.readString(csv.toPath()), "Loading should not write the file being read.");
+        assertEquals(2, restored.getAllTasks().size(), "Persisted state should not be revalidated.");
+        assertEquals(TaskStatus.DONE, restored.getEpicById(5).getStatus());
+        assertEquals(List.of(7), List.copyOf(restored.getEpicById(5).getSubtaskIds()));
+        assertEquals(8, restored.createEpic(new Epic("Новый", "Описание")), "New ids should continue after restored ones.");
+    }
 }
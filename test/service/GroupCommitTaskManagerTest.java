@@ -0,0 +1,101 @@
+package service;
+
+import exceptions.ManagerSaveException;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GroupCommitTaskManagerTest extends StorageTaskManagerTest<GroupCommitTaskManager> {
+    @Override
+    protected GroupCommitTaskManager createTaskManager(File file) {
+        return GroupCommitTaskManager.create(file, Duration.ZERO, 64);
+    }
+
+    @Test
+    void concurrentMutationsShareBatchesAndSurviveRestart() throws Exception {
+        close(taskManager);
+        GroupCommitTaskManager manager = track(GroupCommitTaskManager.load(file, Duration.ofMillis(5), 64));
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 0, 0);
+        int threads = 8;
+        int perThread = 50;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    LocalDateTime slot = start.plusHours((long) thread * perThread + i);
+                    manager.createTask(new Task("Задача", "Описание", TaskStatus.NEW, Duration.ofMinutes(30), slot));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        assertTrue(manager.getBatchCount() < threads * perThread, "Concurrent records should be flushed together.");
+        close(manager);
+
+        GroupCommitTaskManager restored = track(GroupCommitTaskManager.load(file, Duration.ZERO, 64));
+        assertEquals(threads * perThread, restored.getAllTasks().size(), "Every acknowledged task should be durable.");
+    }
+
+    @Test
+    void createRefusesToOverwriteExistingStore() throws IOException {
+        int taskId = taskManager.createTask(new Task("Задача", "Описание", TaskStatus.NEW, Duration.ofHours(1), LocalDateTime.of(2025, 3, 1, 10, 0)));
+        close(taskManager);
+
+        assertThrows(ManagerSaveException.class, () -> GroupCommitTaskManager.create(file, Duration.ZERO, 64));
+        assertNotNull(track(GroupCommitTaskManager.load(file, Duration.ZERO, 64)).getTaskById(taskId));
+    }
+
+    @Test
+    void checkpointAndLogAreReplayedOnLoad() throws IOException {
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 10, 0);
+        int epicId = taskManager.createEpic(new Epic("Эпик", "Описание"));
+        int subtaskId = taskManager.createSubtask(new Subtask("Подзадача", "Описание", TaskStatus.DONE, epicId, Duration.ofMinutes(30), start));
+        taskManager.checkpoint();
+        int taskId = taskManager.createTask(new Task("Задача", "Описание", TaskStatus.NEW, Duration.ofHours(1), start.plusHours(1)));
+        taskManager.deleteSubtask(subtaskId);
+        close(taskManager);
+
+        GroupCommitTaskManager restored = track(GroupCommitTaskManager.load(file, Duration.ZERO, 64));
+        assertNotNull(restored.getTaskById(taskId));
+        assertNull(restored.getSubtaskById(subtaskId), "Delete after checkpoint should be replayed.");
+        assertEquals(TaskStatus.NEW, restored.getEpicById(epicId).getStatus());
+        assertThrows(IllegalArgumentException.class, () -> new GroupCommitLog(null, Duration.ZERO, 0));
+    }
+
+    @Test
+    void restartAfterTornTailKeepsLogUsable() throws IOException {
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 10, 0);
+        int firstId = taskManager.createTask(new Task("Задача", "Описание", TaskStatus.NEW, Duration.ofHours(1), start));
+        close(taskManager);
+        Files.write(new File(file.getPath() + ".wal").toPath(), "P\tTASK\t99".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        GroupCommitTaskManager recovered = track(GroupCommitTaskManager.load(file, Duration.ZERO, 64));
+        int secondId = recovered.createTask(new Task("После сбоя", "Описание", TaskStatus.NEW, Duration.ofHours(1), start.plusHours(2)));
+        close(recovered);
+
+        GroupCommitTaskManager reloaded = track(GroupCommitTaskManager.load(file, Duration.ZERO, 64));
+        assertNotNull(reloaded.getTaskById(firstId));
+        assertEquals("После сбоя", reloaded.getTaskById(secondId).getTitle(), "Commit after recovery should not be glued to the torn tail.");
+    }
+}
@@ -0,0 +1,41 @@
+package service;
+
+import model.Task;
+import model.TaskStatus;
+
+import java.util.Random;
+import java.util.function.Supplier;
+
+// Сравнение реализаций истории: просмотры со случайными повторами и периодическим чтением истории.
+// Запуск: java service.HistoryManagerBenchmark [capacity] [operations]
+public class HistoryManagerBenchmark {
+
+    public static void main(String[] args) {
+        int capacity = args.length > 0 ? Integer.parseInt(args[0]) : 1_000;
+        int operations = args.length > 1 ? Integer.parseInt(args[1]) : 5_000_000;
+        Task[] tasks = new Task[capacity * 4];
+        for (int id = 0; id < tasks.length; id++) {
+            tasks[id] = new Task(id, "Task " + id, TaskStatus.NEW, "Description");
+        }
+
+        for (int round = 0; round < 3; round++) { // Первые прогоны - прогрев JIT
+            run("linked list", () -> new InMemoryHistoryManager(capacity), tasks, operations);
+            run("ring buffer", () -> new RingBufferHistoryManager(capacity), tasks, operations);
+        }
+    }
+
+    private static void run(String name, Supplier<HistoryManager> factory, Task[] tasks, int operations) {
+        HistoryManager history = factory.get();
+        Random random = new Random(1);
+        long checksum = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < operations; i++) {
+            history.add(tasks[random.nextInt(tasks.length)]);
+            if (i % 1_000 == 0) {
+                checksum += history.getHistory().size();
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("%-12s %8.1f ns/op (checksum %d)%n", name, (double) elapsed / operations, checksum);
+    }
+}
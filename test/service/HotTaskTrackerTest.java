@@ -0,0 +1,83 @@
+package service;
+
+import model.Epic;
+import model.ViewCount;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HotTaskTrackerTest {
+
+    @Test
+    void testFindsHeavyHitters() {
+        HotTaskTracker tracker = new HotTaskTracker(1024, 5);
+        Random random = new Random(7);
+        for (int i = 0; i < 50_000; i++) {
+            tracker.record(random.nextInt(10_000) + 100); // Фон из редких просмотров
+            if (i % 5 == 0) tracker.record(1);
+            if (i % 10 == 0) tracker.record(2);
+        }
+
+        List<ViewCount> top = tracker.getTop(2);
+        assertEquals(1, top.get(0).getId());
+        assertEquals(2, top.get(1).getId());
+        assertTrue(tracker.estimate(1) >= 10_000, "Count-min estimate should never be below the true count.");
+
+        tracker.remove(1);
+        assertEquals(2, tracker.getTop(1).get(0).getId());
+    }
+
+    @Test
+    void testLeaderViewsDoNotTakeTheMonitor() throws Exception {
+        HotTaskTracker tracker = new HotTaskTracker(1024, 2);
+        for (int i = 0; i < 10; i++) {
+            tracker.record(1);
+            tracker.record(2);
+        }
+        ExecutorService readers = Executors.newFixedThreadPool(4);
+        try {
+            synchronized (tracker) { // Монитор занят: просмотры лидеров всё равно должны проходить
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < 4; t++) {
+                    futures.add(readers.submit(() -> {
+                        for (int i = 0; i < 1000; i++) {
+                            tracker.record(1);
+                        }
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get(10, TimeUnit.SECONDS);
+                }
+            }
+        } finally {
+            readers.shutdownNow();
+        }
+        assertEquals(1, tracker.getTop(1).get(0).getId());
+        assertTrue(tracker.getTop(1).get(0).getViews() >= 4010);
+    }
+
+    @Test
+    void testManagerCountsViews() {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        int epicId = manager.createEpic(new Epic("Epic", "Description"));
+        for (int i = 0; i < 3; i++) {
+            manager.getEpicById(epicId);
+        }
+
+        List<ViewCount> hot = manager.getHotTasks(10);
+        assertEquals(1, hot.size());
+        assertEquals(epicId, hot.get(0).getId());
+        assertEquals(3, hot.get(0).getViews());
+
+        manager.deleteEpic(epicId);
+        assertTrue(manager.getHotTasks(10).isEmpty());
+    }
+}
@@ -99,6 +99,22 @@ class InMemoryHistoryManagerTest {
         assertTrue(historyManager.getHistory().isEmpty(), "History should be empty after deletion.");
     }
 
-
-
-}
\ No newline at end of file
+    @Test
+    void testBoundedHistoryEvictsLeastRecentlyViewed() {
+        HistoryManager bounded = Managers.getDefaultHistory(2);
+        for (int id = 1; id <= 3; id++) {
+            Task task = new Task("Task " + id, "Description", TaskStatus.NEW);
+            task.setId(id);
+            bounded.add(task);
+            if (id == 2) {
+                bounded.add(bounded.getHistory().get(0)); // Повторный просмотр задачи 1 делает её самой свежей
+            }
+        }
+
+        List<Task> history = bounded.getHistory();
+        assertEquals(2, history.size(), "History should not exceed its capacity.");
+        assertEquals(1, history.get(0).getId(), "Recently viewed task should survive eviction.");
+        assertEquals(3, history.get(1).getId());
+        assertThrows(IllegalArgumentException.class, () -> Managers.getDefaultHistory(-1));
+    }
+}
@@ -4,11 +4,14 @@ import model.Epic;
 import model.Subtask;
 import model.Task;
 import model.TaskStatus;
+import model.TaskType;
+import model.TimeSlot;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -25,7 +28,8 @@ class InMemoryTaskManagerTest extends TaskManagerTest<InMemoryTaskManager> {
 
     @BeforeEach
     public void setUp() {
-        taskManager = createTaskManager(); // Initialize taskManager
+        super.setUp(); // Base tests use the field from TaskManagerTest
+        taskManager = super.taskManager; // Initialize taskManager
     }
 
     @Test
@@ -381,6 +385,294 @@ class InMemoryTaskManagerTest extends TaskManagerTest<InMemoryTaskManager> {
         assertEquals(taskId2, history.get(1).getId(), "Second in history should be Task 2.");
     }
 
+    @Test
+    public void testGetOverlappingTasksReturnsConflicts() {
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 10, 0);
+        Task task1 = new Task("Task 1", "Description", TaskStatus.NEW, Duration.ofHours(1), start);
+        Task task2 = new Task("Task 2", "Description", TaskStatus.NEW, Duration.ofHours(1), start.plusHours(2));
+        int taskId1 = taskManager.createTask(task1);
+        taskManager.createTask(task2);
+
+        Task candidate = new Task("Candidate", "Description", TaskStatus.NEW, Duration.ofMinutes(30), start.plusMinutes(45));
+        List<Task> conflicts = taskManager.getOverlappingTasks(candidate);
+        assertEquals(1, conflicts.size(), "Only Task 1 should overlap with the candidate.");
+        assertEquals(taskId1, conflicts.get(0).getId());
+
+        Task free = new Task("Free", "Description", TaskStatus.NEW, Duration.ofHours(1), start.plusHours(1));
+        assertTrue(taskManager.getOverlappingTasks(free).isEmpty(), "Adjacent intervals should not overlap.");
+    }
+
+    @Test
+    public void testOverlapIndexFollowsUpdateAndDelete() {
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 10, 0);
+        Task task = new Task("Task", "Description", TaskStatus.NEW, Duration.ofHours(1), start);
+        int taskId = taskManager.createTask(task);
+
+        Task moved = new Task(taskId, "Task", "Description", TaskStatus.NEW, Duration.ofHours(1), start.plusHours(5));
+        taskManager.updateTask(moved);
+
+        Task atOldTime = new Task("Old slot", "Description", TaskStatus.NEW, Duration.ofHours(1), start);
+        assertTrue(taskManager.getOverlappingTasks(atOldTime).isEmpty(), "Old interval should be released after update.");
+
+        Task atNewTime = new Task("New slot", "Description", TaskStatus.NEW, Duration.ofHours(1), start.plusHours(5));
+        assertEquals(1, taskManager.getOverlappingTasks(atNewTime).size());
+
+        taskManager.deleteTask(taskId);
+        assertTrue(taskManager.getOverlappingTasks(atNewTime).isEmpty(), "Interval should be released after deletion.");
+    }
+
+    @Test
+    public void testGetSubtasksByEpicIdUsesEpicIndex() {
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 10, 0);
+        int epicId1 = taskManager.createEpic(new Epic("Epic 1", "Description"));
+        int epicId2 = taskManager.createEpic(new Epic("Epic 2", "Description"));
+        int subtaskId1 = taskManager.createSubtask(new Subtask("Subtask 1", "Description", TaskStatus.NEW, epicId1, Duration.ofHours(1), start));
+        int subtaskId2 = taskManager.createSubtask(new Subtask("Subtask 2", "Description", TaskStatus.DONE, epicId2, Duration.ofHours(1), start.plusHours(1)));
+        int subtaskId3 = taskManager.createSubtask(new Subtask("Subtask 3", "Description", TaskStatus.NEW, epicId1, Duration.ofHours(1), start.plusHours(2)));
+
+        List<Subtask> epicSubtasks = taskManager.getSubtasksByEpicId(epicId1);
+        assertEquals(2, epicSubtasks.size(), "Epic 1 should contain only its own subtasks.");
+        assertEquals(subtaskId1, epicSubtasks.get(0).getId());
+        assertEquals(subtaskId3, epicSubtasks.get(1).getId());
+
+        taskManager.deleteSubtask(subtaskId1);
+        assertEquals(1, taskManager.getSubtasksByEpicId(epicId1).size(), "Deleted subtask should leave the epic index.");
+        assertEquals(subtaskId2, taskManager.getSubtasksByEpicId(epicId2).get(0).getId());
+        assertTrue(taskManager.getSubtasksByEpicId(999).isEmpty(), "Unknown epic should have no subtasks.");
+    }
+
+    @Test
+    public void testEpicStatusFollowsSubtaskCounters() {
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 10, 0);
+        int epicId = taskManager.createEpic(new Epic("Epic", "Description"));
+        Subtask subtask1 = new Subtask("Subtask 1", "Description", TaskStatus.NEW, epicId, Duration.ofHours(1), start);
+        Subtask subtask2 = new Subtask("Subtask 2", "Description", TaskStatus.NEW, epicId, Duration.ofHours(1), start.plusHours(1));
+        taskManager.createSubtask(subtask1);
+        int subtaskId2 = taskManager.createSubtask(subtask2);
+        assertEquals(TaskStatus.NEW, taskManager.getEpicById(epicId).getStatus());
+
+        subtask1.setStatus(TaskStatus.DONE);
+        taskManager.updateSubtask(subtask1);
+        assertEquals(TaskStatus.IN_PROGRESS, taskManager.getEpicById(epicId).getStatus());
+        assertEquals(1, taskManager.getEpicById(epicId).getSubtaskCount(TaskStatus.DONE));
+
+        taskManager.deleteSubtask(subtaskId2);
+        assertEquals(TaskStatus.DONE, taskManager.getEpicById(epicId).getStatus(), "Only DONE subtasks remain.");
+        assertEquals(0, taskManager.getEpicById(epicId).getSubtaskCount(TaskStatus.NEW));
+    }
+
+    @Test
+    public void testEpicTimeAggregatesFollowSubtasks() {
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 10, 0);
+        int epicId = taskManager.createEpic(new Epic("Epic", "Description"));
+        Subtask subtask1 = new Subtask("Subtask 1", "Description", TaskStatus.NEW, epicId, Duration.ofHours(1), start);
+        Subtask subtask2 = new Subtask("Subtask 2", "Description", TaskStatus.NEW, epicId, Duration.ofHours(2), start.plusHours(3));
+        int subtaskId1 = taskManager.createSubtask(subtask1);
+        taskManager.createSubtask(subtask2);
+
+        Epic epic = taskManager.getEpicById(epicId);
+        assertEquals(start, epic.getStartTime());
+        assertEquals(start.plusHours(5), epic.getEndTime());
+        assertEquals(Duration.ofHours(3), epic.getDuration());
+
+        taskManager.deleteSubtask(subtaskId1);
+        assertEquals(start.plusHours(3), epic.getStartTime(), "Start should move to the remaining subtask.");
+        assertEquals(Duration.ofHours(2), epic.getDuration());
+
+        subtask2.setStartTime(start.plusHours(6));
+        taskManager.updateSubtask(subtask2);
+        assertEquals(start.plusHours(6), epic.getStartTime());
+        assertEquals(start.plusHours(8), epic.getEndTime());
+        assertEquals(1, taskManager.getHistory().size(), "Reading epic times should not touch history.");
+    }
+
+    @Test
+    public void testGetAllTasksReturnsSharedSnapshotUntilMutation() {
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 10, 0);
+        taskManager.createTask(new Task("Task 1", "Description", TaskStatus.NEW, Duration.ofHours(1), start));
+
+        List<Task> first = taskManager.getAllTasks();
+        assertSame(first, taskManager.getAllTasks(), "Repeated reads should share one snapshot.");
+        assertSame(taskManager.getPrioritizedTasks(), taskManager.getPrioritizedTasks());
+        assertThrows(UnsupportedOperationException.class, () -> first.add(new Task("Task", "Description", TaskStatus.NEW)));
+
+        taskManager.createTask(new Task("Task 2", "Description", TaskStatus.NEW, Duration.ofHours(1), start.plusHours(1)));
+        List<Task> second = taskManager.getAllTasks();
+        assertNotSame(first, second, "Snapshot should be rebuilt after a mutation.");
+        assertEquals(1, first.size(), "Old snapshot should stay unchanged.");
+        assertEquals(2, second.size());
+        assertEquals(2, taskManager.getPrioritizedTasks().size());
+    }
+
+    @Test
+    public void testPagedAndStreamingReads() {
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 10, 0);
+        for (int i = 4; i >= 0; i--) {
+            taskManager.createTask(new Task("Task " + i, "Description", TaskStatus.NEW, Duration.ofHours(1), start.plusHours(i)));
+        }
+
+        List<Task> page = taskManager.getTasks(3, 10);
+        assertEquals(2, page.size(), "Last page should contain the remaining tasks.");
+        assertTrue(taskManager.getTasks(10, 5).isEmpty(), "Offset past the end should return an empty page.");
+
+        List<Task> prioritizedPage = taskManager.getPrioritizedTasks(1, 2);
+        assertEquals(start.plusHours(1), prioritizedPage.get(0).getStartTime());
+        assertEquals(start.plusHours(2), prioritizedPage.get(1).getStartTime());
+        assertThrows(IllegalArgumentException.class, () -> taskManager.getTasks(-1, 5));
+        assertEquals(taskManager.getAllTasks().subList(1, 3), taskManager.getTasks(1, 2), "Pages should follow the full listing order.");
+        taskManager.createTask(new Task("Task 5", "Description", TaskStatus.NEW, Duration.ofHours(1), start.plusHours(5)));
+        assertEquals(2, page.size(), "A page is a copy and does not track later changes.");
+
+        List<Task> streamed = new ArrayList<>();
+        taskManager.forEachPrioritizedTask(streamed::add);
+        assertEquals(6, streamed.size());
+        assertEquals(start, streamed.get(0).getStartTime());
+        int[] count = new int[1];
+        taskManager.forEachTask(task -> count[0]++);
+        assertEquals(6, count[0]);
+    }
+
+    @Test
+    public void testFindFreeSlots() {
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 10, 0);
+        taskManager.createTask(new Task("Task 1", "Description", TaskStatus.NEW, Duration.ofHours(1), start));
+        taskManager.createTask(new Task("Task 2", "Description", TaskStatus.NEW, Duration.ofHours(1), start.plusMinutes(90)));
+        taskManager.createTask(new Task("Task 3", "Description", TaskStatus.NEW, Duration.ofHours(1), start.plusHours(4)));
+
+        TimeSlot slot = taskManager.findFreeSlot(start.plusMinutes(30), Duration.ofMinutes(30));
+        assertEquals(start.plusHours(1), slot.getStart(), "Slot should start after the task in progress.");
+        assertEquals(start.plusMinutes(90), slot.getEnd());
+
+        TimeSlot longSlot = taskManager.findFreeSlot(start, Duration.ofMinutes(90));
+        assertEquals(start.plusMinutes(150), longSlot.getStart(), "Short gaps should be skipped.");
+        assertEquals(start.plusHours(5), taskManager.findFreeSlot(start.plusHours(4), Duration.ofHours(3)).getStart());
+
+        List<TimeSlot> slots = taskManager.findFreeSlots(start.minusHours(1), start.plusHours(6), Duration.ofMinutes(30), 10);
+        assertEquals(List.of(
+                new TimeSlot(start.minusHours(1), start),
+                new TimeSlot(start.plusHours(1), start.plusMinutes(90)),
+                new TimeSlot(start.plusMinutes(150), start.plusHours(4)),
+                new TimeSlot(start.plusHours(5), start.plusHours(6))), slots);
+        assertEquals(1, taskManager.findFreeSlots(start, start.plusHours(6), Duration.ofHours(1), 1).size());
+        assertThrows(IllegalArgumentException.class, () -> taskManager.findFreeSlot(start, Duration.ZERO));
+        assertTrue(taskManager.findFreeSlots(start, start.plusHours(6), Duration.ofMinutes(30), 0).isEmpty());
+    }
+
+    @Test
+    public void testFreeSlotSkipsTaskEnclosingEarlierOne() {
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 10, 0);
+        // Пересекающиеся интервалы возможны только в восстановленном состоянии
+        taskManager.restore(new Task(1, "Long", "Description", TaskStatus.NEW, Duration.ofHours(4), start));
+        taskManager.restore(new Task(2, "Short", "Description", TaskStatus.NEW, Duration.ofMinutes(30), start.plusHours(1)));
+
+        TimeSlot slot = taskManager.findFreeSlot(start.plusHours(2), Duration.ofMinutes(30));
+        assertEquals(start.plusHours(4), slot.getStart(), "Slot must not fall inside the long task.");
+        assertEquals(List.of(new TimeSlot(start.plusHours(4), start.plusHours(6))),
+                taskManager.findFreeSlots(start.plusHours(2), start.plusHours(6), Duration.ofMinutes(30), 10));
+    }
+
+    @Test
+    public void testFindFreeSlotsRejectsInvalidArguments() {
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 10, 0);
+        taskManager.createTask(new Task("Task", "Description", TaskStatus.NEW, Duration.ofHours(1), start));
+        Duration hour = Duration.ofHours(1);
+
+        assertThrows(IllegalArgumentException.class, () -> taskManager.findFreeSlots(null, start, hour, 1));
+        assertThrows(IllegalArgumentException.class, () -> taskManager.findFreeSlots(start, null, hour, 1));
+        assertThrows(IllegalArgumentException.class, () -> taskManager.findFreeSlots(start, start, hour, 1));
+        assertThrows(IllegalArgumentException.class, () -> taskManager.findFreeSlots(start.plusHours(1), start, hour, 1));
+        assertThrows(IllegalArgumentException.class, () -> taskManager.findFreeSlots(start, start.plusHours(2), null, 1));
+        assertThrows(IllegalArgumentException.class, () -> taskManager.findFreeSlots(start, start.plusHours(2), Duration.ZERO, 1));
+        assertThrows(IllegalArgumentException.class, () -> taskManager.findFreeSlots(start, start.plusHours(2), hour.negated(), 1));
+        assertThrows(IllegalArgumentException.class, () -> taskManager.findFreeSlots(start, start.plusHours(2), hour, -1));
+    }
+
+    @Test
+    public void testTimeRangeQueries() {
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 10, 0);
+        for (int i = 0; i < 5; i++) {
+            taskManager.createTask(new Task("Task " + i, "Description", TaskStatus.NEW, Duration.ofHours(1), start.plusHours(i)));
+        }
+
+        List<Task> range = taskManager.getPrioritizedTasks(start.plusHours(1), start.plusHours(3), 10);
+        assertEquals(2, range.size(), "Range end should be exclusive.");
+        assertEquals(start.plusHours(1), range.get(0).getStartTime());
+        assertEquals(1, taskManager.getPrioritizedTasks(start, start.plusDays(1), 1).size());
+        List<Task> openEnded = taskManager.getPrioritizedTasks(start.plusHours(3), null, 10);
+        assertEquals(2, openEnded.size(), "Missing range end should mean no upper bound.");
+        assertEquals(start.plusHours(3), openEnded.get(0).getStartTime());
+        assertEquals(1, taskManager.getPrioritizedTasks(start, null, 1).size());
+
+        List<Task> next = taskManager.getTasksStartingFrom(start.plusMinutes(150), 10);
+        assertEquals(2, next.size(), "Only tasks starting at or after the given time should be returned.");
+        assertEquals(start.plusHours(3), next.get(0).getStartTime());
+
+        List<Task> previous = taskManager.getTasksStartingBefore(start.plusHours(3), 2);
+        assertEquals(start.plusHours(1), previous.get(0).getStartTime());
+        assertEquals(start.plusHours(2), previous.get(1).getStartTime());
+        assertTrue(taskManager.getTasksStartingBefore(start, 5).isEmpty());
+    }
+
+    @Test
+    public void testStatusIndexFollowsMutations() {
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 10, 0);
+        Task task = new Task("Task", "Description", TaskStatus.NEW, Duration.ofHours(1), start);
+        int taskId = taskManager.createTask(task);
+        taskManager.createTask(new Task("Done", "Description", TaskStatus.DONE, Duration.ofHours(1), start.plusHours(1)));
+        int epicId = taskManager.createEpic(new Epic("Epic", "Description"));
+        Subtask subtask = new Subtask("Subtask", "Description", TaskStatus.NEW, epicId, Duration.ofHours(1), start.plusHours(2));
+        taskManager.createSubtask(subtask);
+
+        assertEquals(1, taskManager.getStatusCount(TaskType.TASK, TaskStatus.NEW));
+        assertEquals(1, taskManager.getStatusCount(TaskType.TASK, TaskStatus.DONE));
+        assertEquals(1, taskManager.getStatusCount(TaskType.EPIC, TaskStatus.NEW));
+
+        task.setStatus(TaskStatus.IN_PROGRESS); // Изменение на месте перед обновлением
+        taskManager.updateTask(task);
+        assertEquals(0, taskManager.getStatusCount(TaskType.TASK, TaskStatus.NEW), "Old status entry should be removed.");
+        assertEquals(taskId, taskManager.getTasksByStatus(TaskStatus.IN_PROGRESS).get(0).getId());
+
+        subtask.setStatus(TaskStatus.DONE);
+        taskManager.updateSubtask(subtask);
+        assertEquals(1, taskManager.getSubtasksByStatus(TaskStatus.DONE).size());
+        assertEquals(epicId, taskManager.getEpicsByStatus(TaskStatus.DONE).get(0).getId(), "Epic should be reindexed with its new status.");
+
+        taskManager.deleteEpic(epicId);
+        assertEquals(0, taskManager.getStatusCount(TaskType.SUBTASK, TaskStatus.DONE));
+        assertEquals(0, taskManager.getStatusCount(TaskType.EPIC, TaskStatus.DONE));
+        taskManager.deleteTask(taskId);
+        assertTrue(taskManager.getTasksByStatus(TaskStatus.IN_PROGRESS).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> taskManager.getStatusCount(null, TaskStatus.NEW));
+        assertThrows(IllegalArgumentException.class, () -> taskManager.getStatusCount(TaskType.TASK, null));
+    }
+
+    @Test
+    public void testSearchIndexFollowsMutations() {
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 10, 0);
+        Task report = new Task("Quarterly report", "Prepare the report for finance", TaskStatus.NEW, Duration.ofHours(1), start);
+        int reportId = taskManager.createTask(report);
+        int reviewId = taskManager.createTask(new Task("Code review", "Review the report generator", TaskStatus.NEW, Duration.ofHours(1), start.plusHours(1)));
+        int epicId = taskManager.createEpic(new Epic("Релиз отчётов", "Выпуск новой версии"));
+
+        List<Task> found = taskManager.search("report", 10);
+        assertEquals(2, found.size());
+        assertEquals(reportId, found.get(0).getId(), "Task with more occurrences should rank first.");
+        assertEquals(reviewId, taskManager.search("rev", 10).get(0).getId(), "Prefix should match.");
+        assertEquals(1, taskManager.search("report fin", 10).size(), "All query words should match.");
+        assertEquals(reportId, taskManager.search("quart rep", 10).get(0).getId(), "Every query word may be a prefix.");
+        assertEquals(1, taskManager.search("quart rep", 10).size());
+        assertEquals(epicId, taskManager.search("ОТЧЁТОВ", 10).get(0).getId());
+
+        report.setTitle("Annual summary"); // Изменение на месте перед обновлением
+        report.setDescription("Prepare the summary");
+        taskManager.updateTask(report);
+        assertEquals(1, taskManager.search("report", 10).size(), "Old terms should be removed on update.");
+        assertEquals(reportId, taskManager.search("summary", 10).get(0).getId());
+
+        taskManager.deleteTask(reviewId);
+        assertTrue(taskManager.search("report", 10).isEmpty());
+    }
+
     // Метод для получения специального экземпляра InMemoryTaskManager для тестирования
     public static InMemoryTaskManager getTestInstance() {
         return new InMemoryTaskManager() {
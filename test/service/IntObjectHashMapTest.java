@@ -0,0 +1,72 @@
+package service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntObjectHashMapTest {
+
+    @Test
+    void putGetRemove() {
+        IntObjectHashMap<String> map = new IntObjectHashMap<>();
+        assertNull(map.put(1, "one"));
+        assertEquals("one", map.put(1, "uno"), "Put should return the previous value.");
+        assertEquals("uno", map.get(1));
+        assertTrue(map.containsKey(1));
+        assertEquals("uno", map.remove(1));
+        assertNull(map.get(1));
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    void sequentialKeysIterateInOrder() {
+        IntObjectHashMap<Integer> map = new IntObjectHashMap<>();
+        for (int i = 1; i <= 10; i++) {
+            map.put(i, i);
+        }
+        List<Integer> values = map.values();
+        for (int i = 0; i < values.size(); i++) {
+            assertEquals(i + 1, values.get(i));
+        }
+    }
+
+    @Test
+    void behavesLikeHashMapUnderRandomOperations() {
+        IntObjectHashMap<Integer> map = new IntObjectHashMap<>();
+        Map<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            int key = random.nextInt(5_000) - 100;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                assertEquals(expected.put(key, i), map.put(key, i));
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        for (Map.Entry<Integer, Integer> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+        int iterated = 0;
+        for (Integer ignored : map) {
+            iterated++;
+        }
+        assertEquals(expected.size(), iterated);
+    }
+
+    @Test
+    void reportsMemoryUsage() {
+        IntObjectHashMap<String> map = new IntObjectHashMap<>();
+        long empty = map.memoryUsage();
+        for (int i = 0; i < 1_000; i++) {
+            map.put(i, "value");
+        }
+        assertTrue(map.memoryUsage() > empty, "Memory usage should grow with capacity.");
+        assertEquals(8L * map.capacity(), map.memoryUsage() - 64, "Table should cost 8 bytes per slot.");
+    }
+}
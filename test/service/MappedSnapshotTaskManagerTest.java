@@ -0,0 +1,102 @@
+package service;
+
+import exceptions.ManagerReadFileException;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedSnapshotTaskManagerTest extends StorageTaskManagerTest<MappedSnapshotTaskManager> {
+    @Override
+    protected MappedSnapshotTaskManager createTaskManager(File file) {
+        return MappedSnapshotTaskManager.open(file, Duration.ofHours(1), 1_000_000);
+    }
+
+    @Override
+    protected String fileName() {
+        return "tasks.bin";
+    }
+
+    @Test
+    void snapshotIsServedLazilyAndHydratedInBackground() throws IOException {
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 0, 0);
+        int epicId = taskManager.createEpic(new Epic("Эпик", "Описание"));
+        int firstTaskId = 0;
+        for (int i = 0; i < 3000; i++) {
+            int id = taskManager.createTask(new Task("Задача " + i, "Описание", TaskStatus.NEW, Duration.ofMinutes(30), start.plusHours(i)));
+            if (i == 0) {
+                firstTaskId = id;
+            }
+        }
+        int subtaskId = taskManager.createSubtask(new Subtask("Подзадача", "Описание", TaskStatus.DONE, epicId, Duration.ofMinutes(30), start.minusDays(1)));
+        close(taskManager);
+
+        MappedSnapshotTaskManager opened = track(MappedSnapshotTaskManager.open(file));
+        assertEquals("Задача 0", opened.getTaskById(firstTaskId).getTitle(), "Tasks should be readable before hydration ends.");
+        Subtask lazy = opened.getSubtaskById(subtaskId);
+        assertEquals(epicId, lazy.getEpicId());
+        assertNull(opened.getTaskById(subtaskId), "Lazy lookup should respect the record type.");
+
+        opened.awaitHydration();
+        assertTrue(opened.isHydrated());
+        assertEquals(3000, opened.getAllTasks().size());
+        assertEquals(TaskStatus.DONE, opened.getEpicById(epicId).getStatus());
+        assertEquals(1, opened.getEpicById(epicId).getSubtaskIds().size(), "Lazily loaded subtask should not be duplicated.");
+        assertSame(lazy, opened.getSubtaskById(subtaskId), "Hydration should keep the object handed out earlier.");
+        opened.deleteTask(firstTaskId);
+        close(opened);
+
+        MappedSnapshotTaskManager reopened = track(MappedSnapshotTaskManager.open(file));
+        assertNull(reopened.getTaskById(firstTaskId), "Changes after hydration should be saved.");
+        assertEquals(2999, reopened.getAllTasks().size());
+    }
+
+    @Test
+    void mutationsOnlyMarkStateDirtyUntilSnapshot() {
+        taskManager.createTask(new Task("Задача", "Описание", TaskStatus.NEW, Duration.ofHours(1), LocalDateTime.of(2025, 3, 1, 10, 0)));
+        assertTrue(taskManager.isDirty());
+        assertFalse(file.exists(), "Mutations should not rewrite the snapshot on the caller's thread.");
+
+        taskManager.snapshot();
+        assertFalse(taskManager.isDirty());
+        assertEquals(1, track(MappedSnapshotTaskManager.open(file)).getAllTasks().size());
+    }
+
+    @Test
+    void corruptedSnapshotIsRejectedOnOpen() throws IOException {
+        Files.writeString(file.toPath(), "id,type,name,status,description,epic\n");
+        assertThrows(ManagerReadFileException.class, () -> MappedSnapshotTaskManager.open(file));
+    }
+
+    @Test
+    void corruptedBodyOrDuplicateIdsFailHydration() throws IOException {
+        taskManager.createTask(new Task("Задача", "Описание", TaskStatus.NEW, Duration.ofHours(1), LocalDateTime.of(2025, 3, 1, 10, 0)));
+        taskManager.snapshot();
+        try (RandomAccessFile raw = new RandomAccessFile(file, "rw")) {
+            raw.seek(raw.length() - 1);
+            int last = raw.read();
+            raw.seek(raw.length() - 1);
+            raw.write(last ^ 0xFF);
+        }
+        MappedSnapshotTaskManager corrupted = track(MappedSnapshotTaskManager.open(file));
+        assertThrows(ManagerReadFileException.class, corrupted::awaitHydration, "Body checksum is checked in the background.");
+
+        File duplicates = directory.resolve("duplicates.bin").toFile();
+        Task first = new Task(1, "Первая", "Описание", TaskStatus.NEW, null, null);
+        Task second = new Task(1, "Вторая", "Описание", TaskStatus.NEW, null, null);
+        BinarySnapshotCodec.write(duplicates, List.of(), List.of(first, second), List.of());
+        MappedSnapshotTaskManager duplicated = track(MappedSnapshotTaskManager.open(duplicates));
+        assertThrows(ManagerReadFileException.class, duplicated::awaitHydration, "Duplicate ids should not be dropped silently.");
+    }
+}
@@ -0,0 +1,72 @@
+package service;
+
+import model.Task;
+import model.TaskStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RingBufferHistoryManagerTest {
+    private RingBufferHistoryManager historyManager;
+
+    @BeforeEach
+    void setUp() {
+        historyManager = new RingBufferHistoryManager(3);
+    }
+
+    private static Task task(int id) {
+        Task task = new Task("Task " + id, "Description", TaskStatus.NEW);
+        task.setId(id);
+        return task;
+    }
+
+    @Test
+    void testRepeatedViewMovesTaskToEnd() {
+        historyManager.add(task(1));
+        historyManager.add(task(2));
+        historyManager.add(task(1));
+
+        List<Task> history = historyManager.getHistory();
+        assertEquals(2, historyManager.size(), "History should not contain duplicates.");
+        assertEquals(2, history.get(0).getId());
+        assertEquals(1, history.get(1).getId());
+    }
+
+    @Test
+    void testOldestTaskIsEvictedAtCapacity() {
+        for (int id = 1; id <= 5; id++) {
+            historyManager.add(task(id));
+        }
+        historyManager.remove(4);
+
+        List<Task> history = historyManager.getHistory();
+        assertEquals(2, history.size());
+        assertEquals(3, history.get(0).getId());
+        assertEquals(5, history.get(1).getId());
+        assertThrows(IllegalArgumentException.class, () -> new RingBufferHistoryManager(0));
+    }
+
+    @Test
+    void testMatchesLinkedListHistory() {
+        HistoryManager expected = new InMemoryHistoryManager(3);
+        Random random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            int id = random.nextInt(8);
+            if (random.nextInt(4) == 0) {
+                expected.remove(id);
+                historyManager.remove(id);
+            } else {
+                Task task = task(id);
+                expected.add(task);
+                historyManager.add(task);
+            }
+            if (i % 7 == 0) {
+                assertEquals(expected.getHistory(), historyManager.getHistory(), "Histories diverged at step " + i);
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package service;
+
+import model.Task;
+import model.TaskStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionHistoryManagerTest {
+    private long now;
+    private SessionHistoryManager historyManager;
+
+    @BeforeEach
+    void setUp() {
+        historyManager = new SessionHistoryManager(() -> new InMemoryHistoryManager(10), SessionContext::current, 2, Duration.ofMinutes(5), () -> now);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SessionContext.unbind();
+    }
+
+    private static Task task(int id) {
+        Task task = new Task("Task " + id, "Description", TaskStatus.NEW);
+        task.setId(id);
+        return task;
+    }
+
+    private void view(String session, int taskId) {
+        SessionContext.bind(session);
+        historyManager.add(task(taskId));
+    }
+
+    @Test
+    void testSessionsHaveSeparateHistories() {
+        view("alice", 1);
+        view("bob", 2);
+        view("bob", 3);
+
+        SessionContext.bind("alice");
+        assertEquals(1, historyManager.getHistory().size());
+        SessionContext.bind("bob");
+        assertEquals(2, historyManager.getHistory().size());
+
+        historyManager.remove(2);
+        assertEquals(3, historyManager.getHistory().get(0).getId(), "Deleted task should leave every session.");
+        SessionContext.unbind();
+        assertTrue(historyManager.getHistory().isEmpty(), "Default session should not see other sessions' views.");
+    }
+
+    @Test
+    void testIdleAndExcessSessionsAreEvicted() {
+        view("alice", 1);
+        now += Duration.ofMinutes(1).toNanos();
+        view("bob", 2);
+        now += Duration.ofMinutes(1).toNanos();
+        view("carol", 3);
+        assertEquals(2, historyManager.getSessionCount(), "Least recently active session should be evicted.");
+        SessionContext.bind("alice");
+        assertTrue(historyManager.getHistory().isEmpty());
+
+        now += Duration.ofMinutes(10).toNanos();
+        SessionContext.bind("bob");
+        assertTrue(historyManager.getHistory().isEmpty(), "Idle session should expire.");
+    }
+
+    @Test
+    void testOneOffSessionsExpireWithoutBeingAccessedAgain() {
+        SessionHistoryManager roomy = new SessionHistoryManager(() -> new InMemoryHistoryManager(10), SessionContext::current, 100, Duration.ofMinutes(5), () -> now);
+        for (int i = 0; i < 50; i++) {
+            SessionContext.bind("client-" + i);
+            roomy.add(task(i));
+        }
+        SessionContext.bind("client-0");
+        roomy.remove(0); // Сессия client-0 применит удаление при следующем обращении
+
+        now += Duration.ofMinutes(10).toNanos();
+        assertEquals(0, roomy.getSessionCount(), "Idle sessions should expire below the session limit too.");
+        SessionContext.bind("late");
+        roomy.add(task(100));
+        assertEquals(1, roomy.getSessionCount());
+        assertEquals(100, roomy.getHistory().get(0).getId());
+    }
+
+    @Test
+    void testSessionsDoNotWaitForEachOther() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch blocked = new CountDownLatch(1);
+        HistoryManager slow = new InMemoryHistoryManager(10) {
+            @Override
+            public void add(Task task) {
+                blocked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.add(task);
+            }
+        };
+        Supplier<HistoryManager> factory = () -> "slow".equals(SessionContext.current()) ? slow : new InMemoryHistoryManager(10);
+        SessionHistoryManager concurrent = new SessionHistoryManager(factory, SessionContext::current, 10, Duration.ofMinutes(5), () -> now);
+        Thread slowClient = new Thread(() -> {
+            SessionContext.bind("slow");
+            concurrent.add(task(1));
+        });
+        slowClient.start();
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<List<Task>> fast = executor.submit(() -> {
+                SessionContext.bind("fast");
+                concurrent.add(task(2));
+                return concurrent.getHistory();
+            });
+            assertEquals(2, fast.get(5, TimeUnit.SECONDS).get(0).getId(), "Other sessions should not wait for a busy one.");
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+            slowClient.join();
+        }
+    }
+}
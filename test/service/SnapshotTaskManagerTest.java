@@ -0,0 +1,90 @@
+package service;
+
+import exceptions.ManagerSaveException;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotTaskManagerTest extends StorageTaskManagerTest<SnapshotTaskManager> {
+    @Override
+    protected SnapshotTaskManager createTaskManager(File file) {
+        return new SnapshotTaskManager(file, Duration.ofHours(1), 1_000_000);
+    }
+
+    @Test
+    void mutationsOnlyMarkStateDirtyUntilSnapshot() throws IOException {
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 10, 0);
+        int epicId = taskManager.createEpic(new Epic("Эпик", "Описание"));
+        int subtaskId = taskManager.createSubtask(new Subtask("Подзадача", "Описание", TaskStatus.DONE, epicId, Duration.ofMinutes(30), start));
+        assertTrue(taskManager.isDirty());
+        assertFalse(file.exists(), "Mutations should not write the file on the caller's thread.");
+
+        taskManager.snapshot();
+        assertFalse(taskManager.isDirty());
+        int taskId = taskManager.createTask(new Task("Задача", "Описание", TaskStatus.NEW, Duration.ofHours(1), start.plusHours(1)));
+        close(taskManager);
+
+        SnapshotTaskManager restored = track(SnapshotTaskManager.load(file, Duration.ofHours(1), 1_000_000));
+        assertNotNull(restored.getTaskById(taskId), "Close should write pending changes.");
+        assertEquals(start, restored.getSubtaskById(subtaskId).getStartTime());
+        assertEquals(TaskStatus.DONE, restored.getEpicById(epicId).getStatus());
+    }
+
+    @Test
+    void snapshotIsBuiltFromRecordedChanges() throws IOException {
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 10, 0);
+        Task task = new Task("Задача", "Описание", TaskStatus.NEW, Duration.ofHours(1), start);
+        int taskId = taskManager.createTask(task);
+        task.setStatus(TaskStatus.IN_PROGRESS);
+        taskManager.updateTask(task);
+        int epicId = taskManager.createEpic(new Epic("Эпик", "Описание"));
+        int subtaskId = taskManager.createSubtask(new Subtask("Подзадача", "Описание", TaskStatus.NEW, epicId, Duration.ofMinutes(30), start.plusHours(2)));
+        taskManager.deleteEpic(epicId);
+        task.setTitle("Правка без update"); // Не прошла через менеджер - в снимок не попадает
+        taskManager.snapshot();
+
+        SnapshotTaskManager restored = track(SnapshotTaskManager.load(file, Duration.ofHours(1), 1_000_000));
+        assertEquals("Задача", restored.getTaskById(taskId).getTitle());
+        assertEquals(TaskStatus.IN_PROGRESS, restored.getTaskById(taskId).getStatus());
+        assertNull(restored.getSubtaskById(subtaskId), "Deleting an epic should drop its subtasks from the snapshot.");
+        assertTrue(restored.getAllEpics().isEmpty());
+    }
+
+    @Test
+    void dirtyThresholdTriggersBackgroundSnapshot() throws InterruptedException {
+        SnapshotTaskManager manager = track(new SnapshotTaskManager(new File(file.getPath() + "-threshold"), Duration.ofHours(1), 3));
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 10, 0);
+        for (int i = 0; i < 3; i++) {
+            manager.createTask(new Task("Задача " + i, "Описание", TaskStatus.NEW, Duration.ofMinutes(30), start.plusHours(i)));
+        }
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (manager.isDirty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertFalse(manager.isDirty(), "Snapshotter should run once the threshold is reached.");
+        assertThrows(IllegalArgumentException.class, () -> new SnapshotTaskManager(file, Duration.ZERO, 1));
+    }
+
+    @Test
+    void backgroundFailureIsReportedOnClose() throws InterruptedException {
+        File missingDirectory = new File(file.getParentFile(), "missing/tasks.db");
+        SnapshotTaskManager manager = track(new SnapshotTaskManager(missingDirectory, Duration.ofHours(1), 1));
+        manager.createTask(new Task("Задача", "Описание", TaskStatus.NEW, Duration.ofMinutes(30), LocalDateTime.of(2025, 3, 1, 10, 0)));
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (manager.getLastFailure() == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertNotNull(manager.getLastFailure(), "Background snapshot failure should be remembered.");
+        assertTrue(manager.isDirty());
+        assertThrows(ManagerSaveException.class, () -> close(manager), "Unsaved changes should fail close().");
+    }
+}
@@ -0,0 +1,51 @@
+package service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// Общая основа тестов менеджеров с файловым хранилищем: файлы лежат во временном каталоге JUnit,
+// а каждый открытый в тесте менеджер закрывается ровно один раз
+public abstract class StorageTaskManagerTest<T extends TaskManager & Closeable> extends TaskManagerTest<T> {
+    @TempDir
+    protected Path directory;
+    protected File file;
+    private final List<Closeable> opened = new ArrayList<>();
+
+    protected abstract T createTaskManager(File file);
+
+    protected String fileName() {
+        return "tasks.db";
+    }
+
+    @Override
+    protected T createTaskManager() {
+        file = directory.resolve(fileName()).toFile();
+        return track(createTaskManager(file));
+    }
+
+    // Менеджер будет закрыт после теста, если тест не закроет его сам через close
+    protected <M extends Closeable> M track(M manager) {
+        opened.add(manager);
+        return manager;
+    }
+
+    // Закрывает менеджер посреди теста (например, перед перезапуском); после теста он повторно не закрывается
+    protected void close(Closeable manager) throws IOException {
+        opened.remove(manager);
+        manager.close();
+    }
+
+    @AfterEach
+    void closeManagers() throws IOException {
+        while (!opened.isEmpty()) {
+            opened.remove(opened.size() - 1).close();
+        }
+    }
+}
@@ -9,6 +9,7 @@ import org.junit.jupiter.api.Test;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -292,4 +293,82 @@ public abstract class TaskManagerTest<T extends TaskManager> {
 
         assertEquals(epic, taskManager.getEpicById(epicId));
     }
+
+    @Test
+    public void testCreateBatch() {
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 10, 0);
+        int epicId = taskManager.createEpic(new Epic("Epic", "Description"));
+        List<Task> batch = List.of(
+                new Task("Task 2", "Description", TaskStatus.NEW, Duration.ofHours(1), start.plusHours(2)),
+                new Subtask("Subtask", "Description", TaskStatus.DONE, epicId, Duration.ofHours(1), start.plusHours(1)),
+                new Task("Task 1", "Description", TaskStatus.NEW, Duration.ofHours(1), start));
+
+        List<Integer> ids = taskManager.createBatch(batch);
+
+        assertEquals(3, ids.size());
+        assertEquals(2, taskManager.getAllTasks().size());
+        assertEquals(1, taskManager.getAllSubtasks().size());
+        assertEquals(TaskStatus.DONE, taskManager.getEpicById(epicId).getStatus());
+        assertEquals(start, taskManager.getPrioritizedTasks().get(0).getStartTime());
+    }
+
+    @Test
+    public void testCreateBatchIsAtomic() {
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 10, 0);
+        taskManager.createTask(new Task("Existing", "Description", TaskStatus.NEW, Duration.ofHours(1), start));
+
+        List<Task> overlappingEachOther = List.of(
+                new Task("Task 1", "Description", TaskStatus.NEW, Duration.ofHours(2), start.plusHours(5)),
+                new Task("Task 2", "Description", TaskStatus.NEW, Duration.ofHours(1), start.plusHours(6)));
+        assertThrows(IllegalArgumentException.class, () -> taskManager.createBatch(overlappingEachOther));
+
+        List<Task> overlappingExisting = List.of(
+                new Task("Task 3", "Description", TaskStatus.NEW, Duration.ofHours(1), start.plusHours(8)),
+                new Task("Task 4", "Description", TaskStatus.NEW, Duration.ofHours(1), start.plusMinutes(30)));
+        assertThrows(IllegalArgumentException.class, () -> taskManager.createBatch(overlappingExisting));
+
+        assertEquals(1, taskManager.getAllTasks().size(), "Rejected batches should not create anything.");
+    }
+
+    @Test
+    public void testUpdateAndDeleteBatch() {
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 10, 0);
+        int taskId1 = taskManager.createTask(new Task("Task 1", "Description", TaskStatus.NEW, Duration.ofHours(1), start));
+        int taskId2 = taskManager.createTask(new Task("Task 2", "Description", TaskStatus.NEW, Duration.ofHours(1), start.plusHours(1)));
+
+        // Задачи меняются слотами: по отдельности каждое обновление пересекалось бы с другой задачей
+        taskManager.updateBatch(List.of(
+                new Task(taskId1, "Task 1", "Description", TaskStatus.DONE, Duration.ofHours(1), start.plusHours(1)),
+                new Task(taskId2, "Task 2", "Description", TaskStatus.DONE, Duration.ofHours(1), start)));
+
+        assertEquals(taskId2, taskManager.getPrioritizedTasks().get(0).getId());
+        assertEquals(TaskStatus.DONE, taskManager.getTaskById(taskId1).getStatus());
+
+        assertEquals(2, taskManager.deleteBatch(List.of(taskId1, taskId2, 999)));
+        assertTrue(taskManager.getAllTasks().isEmpty());
+        assertTrue(taskManager.getPrioritizedTasks().isEmpty());
+    }
+
+    @Test
+    public void testInPlaceStartChangeLeavesNoStalePriorityEntry() {
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 10, 0);
+        int taskId = taskManager.createTask(new Task("Task 1", "Description", TaskStatus.NEW, Duration.ofHours(1), start));
+        int otherId = taskManager.createTask(new Task("Task 2", "Description", TaskStatus.NEW, Duration.ofHours(1), start.plusHours(2)));
+
+        Task task = taskManager.getTaskById(taskId);
+        task.setStartTime(start.plusHours(4)); // Изменение на месте до вызова update
+        taskManager.updateTask(task);
+
+        List<Task> prioritized = taskManager.getPrioritizedTasks();
+        assertEquals(2, prioritized.size(), "The old priority entry should be removed.");
+        assertEquals(otherId, prioritized.get(0).getId());
+        assertEquals(taskId, prioritized.get(1).getId());
+        assertTrue(taskManager.deleteTask(taskId));
+        assertEquals(List.of(otherId), taskManager.getPrioritizedTasks().stream().map(Task::getId).toList());
+
+        assertThrows(IllegalArgumentException.class, () -> taskManager.updateBatch(List.of(
+                new Task(otherId, "Task 2", "Description", TaskStatus.DONE, Duration.ofHours(1), start),
+                new Task(otherId, "Task 2", "Description", TaskStatus.DONE, Duration.ofHours(1), start.plusHours(6)))),
+                "Duplicate ids in one batch should be rejected.");
+    }
 }
@@ -0,0 +1,83 @@
+package service;
+
+import exceptions.ManagerSaveException;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WalTaskManagerTest extends StorageTaskManagerTest<WalTaskManager> {
+    @Override
+    protected WalTaskManager createTaskManager(File file) {
+        return WalTaskManager.create(file);
+    }
+
+    @Test
+    void createRefusesToOverwriteExistingStore() throws IOException {
+        int taskId = taskManager.createTask(new Task("Задача", "Описание", TaskStatus.NEW, Duration.ofHours(1), LocalDateTime.of(2025, 3, 1, 10, 0)));
+        close(taskManager);
+
+        assertThrows(ManagerSaveException.class, () -> WalTaskManager.create(file), "Existing data should not be erased.");
+        assertNotNull(track(WalTaskManager.load(file)).getTaskById(taskId));
+    }
+
+    @Test
+    void mutationsAreAppendedAndReplayed() throws IOException {
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 10, 0);
+        int taskId = taskManager.createTask(new Task("Задача", "Описание, с запятой\tи табуляцией", TaskStatus.NEW, Duration.ofHours(1), start));
+        int epicId = taskManager.createEpic(new Epic("Эпик", "Описание"));
+        int subtaskId = taskManager.createSubtask(new Subtask("Подзадача", "Описание", TaskStatus.DONE, epicId, Duration.ofMinutes(30), start.plusHours(2)));
+        int removedId = taskManager.createTask(new Task("Удаляемая", "Описание", TaskStatus.NEW, Duration.ofHours(1), start.plusHours(4)));
+        Task task = taskManager.getTaskById(taskId);
+        task.setStatus(TaskStatus.IN_PROGRESS);
+        taskManager.updateTask(task);
+        taskManager.deleteTask(removedId);
+        assertEquals(6, taskManager.getLogSize(), "Every mutation should append to the log.");
+        assertEquals(0, Files.size(file.toPath()), "Mutations should not rewrite the checkpoint.");
+        close(taskManager);
+
+        WalTaskManager restored = track(WalTaskManager.load(file));
+        Task restoredTask = restored.getTaskById(taskId);
+        assertEquals("Описание, с запятой\tи табуляцией", restoredTask.getDescription());
+        assertEquals(TaskStatus.IN_PROGRESS, restoredTask.getStatus());
+        assertNull(restored.getTaskById(removedId));
+        Subtask subtask = restored.getSubtaskById(subtaskId);
+        assertEquals(start.plusHours(2), subtask.getStartTime(), "Subtask time should survive a restart.");
+        assertEquals(TaskStatus.DONE, restored.getEpicById(epicId).getStatus());
+        assertEquals(List.of(subtaskId), List.copyOf(restored.getEpicById(epicId).getSubtaskIds()));
+        assertTrue(restored.createTask(new Task("Новая", "Описание", TaskStatus.NEW, Duration.ofHours(1), start.plusDays(1))) > removedId,
+                "New ids should continue after restored ones.");
+    }
+
+    @Test
+    void checkpointTruncatesLogAndTornRecordIsIgnored() throws IOException {
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 10, 0);
+        int taskId = taskManager.createTask(new Task("Задача", "Описание", TaskStatus.NEW, Duration.ofHours(1), start));
+        taskManager.checkpoint();
+        assertEquals(0, taskManager.getLogSize());
+        taskManager.deleteTask(taskId);
+        close(taskManager);
+        Files.write(new File(file.getPath() + ".wal").toPath(), "P\tTASK\t99".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        WalTaskManager restored = track(WalTaskManager.load(file));
+        assertTrue(restored.getAllTasks().isEmpty(), "Delete after checkpoint should be replayed, torn tail ignored.");
+        int newId = restored.createTask(new Task("После сбоя", "Описание", TaskStatus.NEW, Duration.ofHours(1), start));
+        close(restored);
+
+        WalTaskManager reloaded = track(WalTaskManager.load(file));
+        assertEquals("После сбоя", reloaded.getTaskById(newId).getTitle(), "Record appended after recovery should not be glued to the torn tail.");
+        assertEquals(1, reloaded.getAllTasks().size());
+    }
+}